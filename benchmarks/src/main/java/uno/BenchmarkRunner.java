@@ -0,0 +1,22 @@
+/* BenchmarkRunner.java
+ * Runs the JMH benchmarks with the GC profiler always enabled, so allocation regressions show up as numbers
+ * Accepts the usual JMH command line options
+ */
+
+package uno;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+
+    public static void main(String [] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
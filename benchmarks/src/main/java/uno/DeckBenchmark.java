@@ -0,0 +1,47 @@
+/* DeckBenchmark.java
+ * Benchmarks shuffling the draw pile and returning the discard pile to the draw pile
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    private DrawPile drawPile;
+    private DiscardPile discardPile;
+    private SplittableRandom random;
+
+    @Setup
+    public void setUp() {
+        drawPile = new DrawPile();
+        drawPile.createDeck();
+        discardPile = new DiscardPile(drawPile);
+        random = new SplittableRandom(1);
+    }
+
+    @Benchmark
+    public DrawPile shuffleCards() {
+        drawPile.shuffleCards(random);
+        return drawPile;
+    }
+
+    //Moves the whole deck to the discard pile, then measures returning it, which is what a reshuffle does
+    @Benchmark
+    public DrawPile returnCards() {
+        while(drawPile.getLength() != 0) {
+            discardPile.addCard(drawPile.draw());
+        }
+        discardPile.returnCards();
+        return drawPile;
+    }
+}
@@ -0,0 +1,34 @@
+/* ImageBenchmark.java
+ * Benchmarks rotating a card image, which is done for cards displayed sideways or upside down
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageBenchmark {
+
+    @Param({"90", "180"})
+    public int angle;
+
+    private BufferedImage image;
+
+    @Setup
+    public void setUp() {
+        image = ImageProcessor.loadImage("/images/cards/Back.png");
+    }
+
+    @Benchmark
+    public BufferedImage rotateImage() {
+        return ImageProcessor.rotateImage(image, angle);
+    }
+}
@@ -0,0 +1,55 @@
+/* InboxBenchmark.java
+ * Benchmarks the handoff of a click from the Event Dispatch Thread to the game thread through an ActionInbox
+ * A game thread takes each action and answers through a second inbox, the round trip is measured from the sender,
+ * which is the part of the click to resolution latency that doesn't depend on the game's rules
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InboxBenchmark {
+
+    private ActionInbox inbox;          //actions sent to the game thread
+    private ActionInbox replies;        //actions sent back once the game thread took them
+    private Thread gameThread;
+
+    @Setup
+    public void setUp() {
+        inbox = new ActionInbox();
+        inbox.accept(ActionType.PLAY);
+        replies = new ActionInbox();
+        replies.accept(ActionType.PLAY);
+        gameThread = new Thread(() -> {
+            try {
+                while(true) {
+                    replies.send(inbox.take());
+                }
+            } catch(InterruptedException e) {
+                //the benchmark is over
+            }
+        });
+        gameThread.setDaemon(true);
+        gameThread.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        gameThread.interrupt();
+        gameThread.join();
+    }
+
+    @Benchmark
+    public PlayerAction roundTrip() throws InterruptedException {
+        inbox.send(PlayerAction.play(0));
+        return replies.take();
+    }
+}
@@ -0,0 +1,53 @@
+/* LargeTableBenchmark.java
+ * Benchmarks a headless turn of CPU players at tables of up to Game.MAX_PLAYERS players with several decks
+ * The cost of a turn should depend little on the size of the table: playability checks go through the hand's
+ * bitsets, which grow by two words per deck, and reshuffles only move the discarded cards
+ * A new game is started whenever the current one ends, so the cost of dealing is spread over the game's turns
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LargeTableBenchmark {
+
+    @Param({"4", "10", "20"})
+    public int players;
+
+    @Param({"1", "2", "4", "8"})
+    public int decks;                       //raised to Game.decksFor(players) for tables that one deck can't deal
+
+    private PlayerFactory[] seats;
+    private Game game;
+    private int games;                      //number of games started, used as the index of the next game's seed
+
+    @Setup
+    public void setUp() {
+        seats = new PlayerFactory[players];
+        for(int i = 0; i < players; i++) {
+            seats[i] = CPUPlayer.FACTORY;
+        }
+        newGame();
+    }
+
+    private void newGame() {
+        game = Game.headless(players, Math.max(decks, Game.decksFor(players)), Randomness.seedOf(1, games++));
+        game.start(seats);
+    }
+
+    @Benchmark
+    public int playTurn() {
+        if(!game.isRunning())
+            newGame();
+        game.playTurn();
+        return game.getCurrentTurn();
+    }
+}
@@ -0,0 +1,137 @@
+/* PaintBenchmark.java
+ * Benchmarks a frame of the desktop game after a turn: the default GUI renders the hands into their panels of card
+ * buttons, lays the table out again and paints it, the table canvas paints every card from the sprite atlas
+ * Frames are painted off screen into an image of a 1600x900 window, without a display (java.awt.headless)
+ * Swing components may only be used on the Event Dispatch Thread, so both frames are painted there, the hand-off to
+ * that thread costs the same few microseconds in both
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+
+    private static final int WIDTH = 1600;
+    private static final int HEIGHT = 900;
+
+    @Param({"2", "4", "20"})
+    public int players;
+
+    @Param({"components", "canvas"})
+    public String renderer;
+
+    private PlayerFactory[] seats;
+    private Game game;
+    private int games;                      //number of games started, used as the index of the next game's seed
+    private BufferedImage frame;
+    private CardButton[] cardButtons;
+    private JPanel table;                   //the table of the default GUI, a GridBagLayout of the hand views and piles
+    private HandView[] handViews;
+    private JPanel discardPanel;
+    private JPanel drawPanel;
+    private TableCanvas canvas;
+
+    @Setup
+    public void setUp() throws Exception {
+        seats = new PlayerFactory[players];
+        for(int i = 0; i < players; i++) {
+            seats[i] = CPUPlayer.FACTORY;
+        }
+        frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        cardButtons = new CardButton[Card.MAX_CARDS];
+        for(int card = 0; card < cardButtons.length; card++) {
+            cardButtons[card] = new CardButton(card);
+        }
+        onEventThread(this::newGame);
+    }
+
+    //Starts a game and builds its table, the way GameGUI.initGameView() does for the chosen renderer
+    private void newGame() {
+        game = Game.headless(players, Randomness.seedOf(1, games++));
+        game.start(seats);
+        if(renderer.equals("canvas")) {
+            canvas = new TableCanvas(game, new JButton("Pass"));
+            canvas.setSize(WIDTH, HEIGHT);
+            canvas.initGame(game.getPlayers());
+            canvas.doLayout();
+            return;
+        }
+        table = new JPanel(new GridBagLayout());
+        handViews = GameGUI.seatHands(table, game.getPlayers());
+        JPanel piles = new JPanel();
+        discardPanel = new JPanel();
+        drawPanel = new JPanel();
+        piles.add(discardPanel);
+        piles.add(drawPanel);
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridx = 1;
+        c.gridy = 1;
+        table.add(piles, c);
+        table.setSize(WIDTH, HEIGHT);
+    }
+
+    //Plays a turn and paints the frame that follows it
+    @Benchmark
+    public BufferedImage paintFrame() throws Exception {
+        onEventThread(() -> {
+            if(!game.isRunning())
+                newGame();
+            game.playTurn();
+            Graphics2D g = frame.createGraphics();
+            if(canvas != null)
+                canvas.paint(g);
+            else {
+                renderComponents();
+                layOut(table);
+                table.paint(g);
+            }
+            g.dispose();
+        });
+        return frame;
+    }
+
+    //Updates the hands and the tops of the piles, like GameGUI.render()
+    private void renderComponents() {
+        for(int i = 0; i < handViews.length; i++) {
+            handViews[i].render(i == 0, cardButtons);
+        }
+        showCard(discardPanel, game.getDiscardPile().getLast(), true, game.getDiscardPile().getWildColor());
+        showCard(drawPanel, game.getDrawPile().getLast(), false, CardColor.WILD);
+    }
+
+    /* Lays out a container and everything in it, validate() only lays out components that are shown on screen
+     * Unlike validate(), every container is laid out again, including the ones that didn't change
+     */
+    private static void layOut(Container container) {
+        container.doLayout();
+        for(Component component : container.getComponents()) {
+            if(component instanceof Container)
+                layOut((Container) component);
+        }
+    }
+
+    private void showCard(JPanel panel, int card, boolean front, CardColor wildColor) {
+        panel.removeAll();
+        if(card != -1) {
+            cardButtons[card].setCardIcon(front, 0, wildColor);
+            panel.add(cardButtons[card]);
+        }
+    }
+
+    private static void onEventThread(Runnable runnable) throws InterruptedException, InvocationTargetException {
+        SwingUtilities.invokeAndWait(runnable);
+    }
+}
@@ -0,0 +1,65 @@
+/* PlayabilityBenchmark.java
+ * Benchmarks the checks made every turn to find out which cards can be played
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayabilityBenchmark {
+
+    @Param({"7", "20"})
+    public int handSize;
+
+    private Hand hand;
+    private int discard;
+    private CardColor discardColor;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(1);
+        DrawPile drawPile = new DrawPile();
+        drawPile.createDeck();
+        drawPile.shuffleCards(random);
+        DiscardPile discardPile = new DiscardPile(drawPile);
+        discardPile.createDeck();
+        if(Card.getCardColor(discardPile.getLast()) == CardColor.WILD)
+            discardPile.setWildColor(CardColor.RED);
+        hand = new Hand(drawPile, discardPile, GameView.HEADLESS, null, 0);
+        for(int i = 0; i < handSize; i++) {
+            hand.addCard(drawPile.draw());
+        }
+        discard = discardPile.getLast();
+        discardColor = discardPile.getColor();
+    }
+
+    //Checks every card of the deck against the discard
+    @Benchmark
+    public int isPlayableOn() {
+        int playable = 0;
+        for(int card = 0; card < Card.DECK_SIZE; card++) {
+            if(Card.isPlayableOn(card, discard, discardColor))
+                playable++;
+        }
+        return playable;
+    }
+
+    @Benchmark
+    public int playableCards() {
+        return hand.findPlayable();
+    }
+
+    @Benchmark
+    public boolean isWildDrawFourPlayable() {
+        return hand.isWildDrawFourPlayable();
+    }
+}
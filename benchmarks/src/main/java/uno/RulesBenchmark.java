@@ -0,0 +1,80 @@
+/* RulesBenchmark.java
+ * Benchmarks resolving the effects of played cards with the compiled rules against the branching that Game used
+ * before the rules were compiled (reverse, wild and action card checks), over a shuffled deck
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesBenchmark {
+
+    @Param({"2", "4"})
+    public int players;
+
+    private int[] cards;
+
+    @Setup
+    public void setUp() {
+        DrawPile drawPile = new DrawPile();
+        drawPile.createDeck();
+        drawPile.shuffleCards(new SplittableRandom(1));
+        cards = new int[drawPile.getLength()];
+        for(int i = 0; i < cards.length; i++) {
+            cards[i] = drawPile.get(i);
+        }
+    }
+
+    //Turns passed, cards drawn, direction switches and color picks of every card, added up
+    @Benchmark
+    public int compiled() {
+        int total = 0;
+        for(int card : cards) {
+            int effects = Rules.effects(card, players);
+            total += Rules.playSteps(effects) + Rules.draws(effects);
+            if(Rules.reverses(effects))
+                total += 16;
+            if(Rules.picksColor(effects))
+                total += 32;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int branching() {
+        int total = 0;
+        for(int card : cards) {
+            int steps = 1;
+            CardAction action = Card.getCardAction(card);
+            if(action.equals(CardAction.REVERSE)) {
+                if(players == 2)
+                    steps++;
+                else
+                    total += 16;
+            }
+            if(Card.getCardColor(card).equals(CardColor.WILD))
+                total += 32;
+            if(action.equals(CardAction.DRAW2)) {
+                total += 2;
+                steps++;
+            }
+            else if(action.equals(CardAction.DRAW4)) {
+                total += 4;
+                steps++;
+            }
+            else if(action.equals(CardAction.SKIP))
+                steps++;
+            total += steps;
+        }
+        return total;
+    }
+}
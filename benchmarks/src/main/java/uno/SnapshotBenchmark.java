@@ -0,0 +1,78 @@
+/* SnapshotBenchmark.java
+ * Benchmarks saving a game in progress (to a buffer and to a checkpoint file) and restoring it
+ * The game is saved after 10 turns, when the hands and both piles are all in use
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({"4", "20"})
+    public int players;
+
+    private PlayerFactory[] seats;
+    private Game game;
+    private ByteBuffer buffer;
+    private ByteBuffer snapshot;            //snapshot of the game, restored by restore()
+    private Path checkpointFile;
+    private Checkpoint checkpoint;
+
+    @Setup
+    public void setUp() throws IOException {
+        seats = new PlayerFactory[players];
+        for(int i = 0; i < players; i++) {
+            seats[i] = CPUPlayer.FACTORY;
+        }
+        game = Game.headless(players, 1);
+        game.start(seats);
+        for(int i = 0; i < 10; i++) {
+            game.playTurn();
+        }
+        buffer = ByteBuffer.allocate(GameSnapshot.MAX_SIZE);
+        snapshot = ByteBuffer.allocate(GameSnapshot.MAX_SIZE);
+        GameSnapshot.write(game, snapshot);
+        snapshot.flip();
+        checkpointFile = Files.createTempFile("uno", ".checkpoint");
+        checkpoint = new Checkpoint(checkpointFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        checkpoint.close();
+        Files.delete(checkpointFile);
+    }
+
+    @Benchmark
+    public ByteBuffer write() {
+        buffer.clear();
+        GameSnapshot.write(game, buffer);
+        return buffer;
+    }
+
+    //Writes the snapshot and copies it to the checkpoint's memory-mapped file with its CRC
+    @Benchmark
+    public Checkpoint save() {
+        checkpoint.save(game);
+        return checkpoint;
+    }
+
+    //Rebuilds the game from its snapshot, with its piles, hands and players
+    @Benchmark
+    public Game restore() {
+        return GameSnapshot.read(snapshot.duplicate(), seats);
+    }
+}
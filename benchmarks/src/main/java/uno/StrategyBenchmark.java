@@ -0,0 +1,80 @@
+/* StrategyBenchmark.java
+ * Benchmarks playing a batch of headless games of CPU bots one game after the other, where each bot decides alone,
+ * against playing them in lockstep, where each seat's strategy decides for every game of the batch in one call
+ * (see Lockstep), and taking the view that a strategy decides from (see BotView)
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StrategyBenchmark {
+
+    private static final int GAMES = 256;
+    private static final int TURN_LIMIT = 10000;
+
+    @Param({"2", "4"})
+    public int players;
+
+    private PlayerFactory[] seats;
+    private long seed;                      //seed of the next batch, so every batch deals new games
+    private BotPlayer player;               //player to move in a game after 10 turns, for view()
+
+    @Setup
+    public void setUp() {
+        seats = new PlayerFactory[players];
+        for(int i = 0; i < players; i++) {
+            seats[i] = CPUPlayer.FACTORY;
+        }
+        Game game = Game.headless(players, 1);
+        game.start(seats);
+        for(int i = 0; i < 10; i++) {
+            game.playTurn();
+        }
+        player = (BotPlayer) game.getPlayers()[game.getCurrentTurn()];
+    }
+
+    @Benchmark
+    public int oneByOne() {
+        seed++;
+        int turns = 0;
+        for(int i = 0; i < GAMES; i++) {
+            Game game = Game.headless(players, Randomness.seedOf(seed, i));
+            game.simulate(seats, TURN_LIMIT);
+            turns += game.getTurns();
+        }
+        return turns;
+    }
+
+    @Benchmark
+    public int lockstep() {
+        seed++;
+        SplittableRandom random = new SplittableRandom(seed);
+        Strategy[] strategies = new Strategy[players];
+        for(int i = 0; i < players; i++) {
+            strategies[i] = new CPUPlayer(random.split());
+        }
+        Lockstep lockstep = new Lockstep(strategies, seed, 0, GAMES, TURN_LIMIT);
+        lockstep.play();
+        int turns = 0;
+        for(Game game : lockstep.getGames()) {
+            turns += game.getTurns();
+        }
+        return turns;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public BotView view() {
+        return player.view();
+    }
+}
@@ -0,0 +1,71 @@
+/* TurnBenchmark.java
+ * Benchmarks a full headless turn of CPU players, including the rule checks that follow the player's move
+ * A new game is started whenever the current one ends, so the cost of dealing is spread over the game's turns
+ * With logged = true every action is also recorded in a GameLog, to measure the cost of logging
+ * The log's next chunk is prepared on another thread, so on a single core its page faults add to the logged score
+ */
+
+package uno;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnBenchmark {
+
+    @Param({"2", "4"})
+    public int players;
+
+    @Param({"false", "true"})
+    public boolean logged;
+
+    private PlayerFactory[] seats;
+    private Game game;
+    private int games;                      //number of games started, used as the index of the next game's seed
+    private Path logFile;
+    private GameLog log;
+
+    @Setup
+    public void setUp() throws IOException {
+        if(logged) {
+            logFile = Files.createTempFile("uno", ".log");
+            log = new GameLog(logFile);
+        }
+        seats = new PlayerFactory[players];
+        for(int i = 0; i < players; i++) {
+            seats[i] = CPUPlayer.FACTORY;
+        }
+        newGame();
+    }
+
+    private void newGame() {
+        game = Game.headless(players, Randomness.seedOf(1, games++));
+        game.setLog(log);
+        game.start(seats);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if(logged) {
+            log.close();
+            Files.delete(logFile);
+        }
+    }
+
+    @Benchmark
+    public int playTurn() {
+        if(!game.isRunning())
+            newGame();
+        game.playTurn();
+        return game.getCurrentTurn();
+    }
+}
@@ -0,0 +1,69 @@
+/* ActionInbox.java
+ * Queue of the user's actions, filled by the Event Dispatch Thread and emptied by the game thread
+ * The game thread says which types of actions it waits on with accept(), actions of other types are refused by send()
+ * so the GUI knows right away that a click was ignored, and an accepted action always reaches the game thread
+ * Every action taken by the game is resolved when the game is done with it, which is when the game waits on the
+ * next action or when the turn ends, the time from the click to the resolution is recorded in Metrics.INPUT
+ */
+
+package uno;
+
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.Set;
+
+public class ActionInbox {
+
+    private final ArrayDeque<PlayerAction> actions;
+    private Set<ActionType> accepted;           //types of actions that the game waits on
+    private PlayerAction unresolved;            //last action taken by the game, null once resolved
+
+    ActionInbox() {
+        actions = new ArrayDeque<>();
+        accepted = EnumSet.noneOf(ActionType.class);
+    }
+
+    /* Queues an action if the game waits on actions of its type
+     * Returns false if the action was refused
+     */
+    synchronized boolean send(PlayerAction action) {
+        if(!accepted.contains(action.getType()))
+            return false;
+        actions.add(action);
+        notifyAll();
+        return true;
+    }
+
+    /* Sets the types of actions that the game waits on, queued actions of other types are dropped
+     * Called by the game thread, with no types when the game doesn't wait on the user
+     */
+    synchronized void accept(ActionType... types) {
+        accepted = EnumSet.noneOf(ActionType.class);
+        for(ActionType type : types) {
+            accepted.add(type);
+        }
+        actions.removeIf(action -> !accepted.contains(action.getType()));
+    }
+
+    //Waits until an action is queued and returns it, the previous action is resolved first
+    PlayerAction take() throws InterruptedException {
+        resolve();
+        PlayerAction action;
+        synchronized(this) {
+            while(actions.isEmpty()) {
+                wait();
+            }
+            action = actions.poll();
+        }
+        unresolved = action;
+        return action;
+    }
+
+    //Records the latency of the last action taken, called by the game thread when it is done with the action
+    void resolve() {
+        if(unresolved == null)
+            return;
+        Metrics.INPUT.recordSince(unresolved.getTime());
+        unresolved = null;
+    }
+}
@@ -0,0 +1,13 @@
+/* ActionType.java
+ * Represents the kind of an action sent by the user to the game
+ */
+
+package uno;
+
+public enum ActionType {
+    MODE,
+    PLAY,
+    DRAW,
+    PASS,
+    COLOR
+}
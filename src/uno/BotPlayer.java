@@ -0,0 +1,100 @@
+/* BotPlayer.java
+ * Seats a Strategy in a game: takes a view of the game for each decision, and applies the decision to the hand
+ * The strategy only sees the view (see BotView), the player is what draws and plays the cards and picks the color
+ * A decision can also be given before the turn (see Lockstep), which then replaces the turn's first decision
+ */
+
+package uno;
+
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+public class BotPlayer extends Player {
+
+    private static final int NO_DECISION = Integer.MIN_VALUE;
+
+    private final Strategy strategy;
+    private Game game;
+    private int index;
+    private int decision;                   //decision given for the next turn, NO_DECISION if there is none
+    private CardColor color;                //color picked with the last card played
+
+    BotPlayer(Hand hand, DiscardPile discardPile, Strategy strategy) {
+        super(hand, discardPile);
+        this.strategy = strategy;
+        decision = NO_DECISION;
+        AI = true;
+    }
+
+    //Seats a player of the strategy created from each player's random stream
+    static PlayerFactory factory(Function<SplittableRandom, Strategy> strategy) {
+        return (hand, discardPile, random) -> new BotPlayer(hand, discardPile, strategy.apply(random));
+    }
+
+    @Override
+    void seat(Game game, int index) {
+        this.game = game;
+        this.index = index;
+    }
+
+    @Override
+    void reseed(SplittableRandom random) {
+        strategy.reseed(random);
+    }
+
+    /* Asks the strategy for decisions until it plays a card or passes
+     * Drawing twice, passing without drawing, playing a card that isn't playable, or picking WILD as the color is a
+     * bug of the strategy
+     */
+    @Override
+    public boolean play() {
+        int move = decision;
+        decision = NO_DECISION;
+        if(move == NO_DECISION)
+            move = strategy.decide(view());
+        if(move == Strategy.DRAW) {
+            if(isDrawn())
+                throw new IllegalStateException("Strategy drew a second card in a turn");
+            getHand().drawCard(1);
+            setDrawn(true);
+            move = strategy.decide(view());
+        }
+        if(move == Strategy.PASS) {
+            if(!isDrawn())
+                throw new IllegalStateException("Strategy passed without drawing a card");
+            return false;
+        }
+        Hand hand = getHand();
+        int card = Strategy.cardOf(move);
+        if(move < 0 || !hand.holds(card) || !hand.isPlayable(card) ||
+                (move & 7) > CardColor.WILD.ordinal() ||        //picks WILD, or no color at all
+                (move & 7) != 0 && Card.getCardColor(card) != CardColor.WILD)     //picks a color for a colored card
+            throw new IllegalStateException("Strategy made an illegal decision " + move);
+        color = Strategy.colorOf(move);
+        hand.playCard(card);
+        return true;
+    }
+
+    @Override
+    public void pickColor() {
+        CardColor picked = color != null ? color : strategy.pickColor(view());
+        if(picked == null || picked == CardColor.WILD)
+            throw new IllegalStateException("Strategy picked " + picked + " for a wild card");
+        discardPile.setWildColor(picked);
+        color = null;
+    }
+
+    //Takes the view of the game from this player's seat
+    BotView view() {
+        return new BotView(game, index);
+    }
+
+    //Gives the decision for the first decision of the next turn, made for a view taken at the start of the turn
+    void setDecision(int decision) {
+        this.decision = decision;
+    }
+
+    Strategy getStrategy() {
+        return strategy;
+    }
+}
@@ -0,0 +1,133 @@
+/* BotView.java
+ * Immutable view of a game from the seat of the player to move, the only input of a Strategy
+ * It holds what the player can see and nothing more: its own cards, the size of the other hands and of the draw
+ * pile, the top of the discard pile and the color to match, the direction of play, and whether it has drawn a card
+ * The hand is kept as a bitset of card ids (like Hand), and the playable cards are found once when the view is
+ * taken, so a view of a 4-player game is two small arrays (under 200 bytes) and reading it never touches the game
+ */
+
+package uno;
+
+public final class BotView {
+
+    private static final CardColor[] COLORS = CardColor.values();
+
+    private final int seat;                 //index of the player to move
+    private final int words;                //words of a bitset of cards, see Card.words()
+    private final long[] cards;             //bitset of the cards in the player's hand, then of its playable cards
+    private final int playableCount;
+    private final short[] counts;           //number of cards of each color in the hand (by CardColor ordinal), then
+                                            //the number of cards in each player's hand (by seat)
+    private final int discard;              //top card of the discard pile
+    private final CardColor color;          //color to match, the color picked for a wild card
+    private final Direction direction;
+    private final boolean drawn;            //true if the player has drawn a card this turn
+    private final int drawPileSize;
+
+    //Takes the view of the player at the given seat
+    BotView(Game game, int seat) {
+        Player[] players = game.getPlayers();
+        Hand hand = players[seat].getHand();
+        DiscardPile discardPile = game.getDiscardPile();
+        this.seat = seat;
+        discard = discardPile.getLast();
+        color = discardPile.getColor();
+        direction = game.getDirection();
+        drawn = players[seat].isDrawn();
+        drawPileSize = game.getDrawPile().getLength();
+        counts = new short[COLORS.length + players.length];
+        for(CardColor cardColor : COLORS) {
+            counts[cardColor.ordinal()] = (short) hand.getColorCount(cardColor);
+        }
+        for(int i = 0; i < players.length; i++) {
+            counts[COLORS.length + i] = (short) players[i].getHand().getLength();
+        }
+        words = Card.words(hand.getDecks());
+        cards = new long[2 * words];
+        boolean draw4 = counts[color.ordinal()] == 0;       //see Hand.isWildDrawFourPlayable()
+        int count = 0;
+        for(int i = 0; i < words; i++) {
+            cards[i] = hand.getMembers(i);
+            long word = cards[i] & Card.playableMask(discard, color, i);
+            if(!draw4)
+                word &= ~Card.draw4Mask(i);
+            cards[words + i] = word;
+            count += Long.bitCount(word);
+        }
+        playableCount = count;
+    }
+
+    int getSeat() {
+        return seat;
+    }
+
+    int getPlayers() {
+        return counts.length - COLORS.length;
+    }
+
+    //Number of cards in the hand of the player at the given seat
+    int getHandSize(int player) {
+        return counts[COLORS.length + player];
+    }
+
+    //Index of the player after the player to move, in the direction of play
+    int getNextSeat() {
+        int players = getPlayers();
+        return direction == Direction.CW ? (seat + 1) % players : (seat + players - 1) % players;
+    }
+
+    //Checks if the player holds the card
+    boolean holds(int card) {
+        return card >= 0 && card >>> 6 < words && (cards[card >>> 6] & 1L << (card & 63)) != 0;
+    }
+
+    //Checks if the player holds the card and may play it on the discard
+    boolean isPlayable(int card) {
+        return card >= 0 && card >>> 6 < words && (cards[words + (card >>> 6)] & 1L << (card & 63)) != 0;
+    }
+
+    int getPlayableCount() {
+        return playableCount;
+    }
+
+    //Returns the playable card of the given rank (0 to getPlayableCount() - 1), in order of id, like Hand.getPlayable()
+    int getPlayable(int rank) {
+        for(int i = 0; i < words; i++) {
+            long word = cards[words + i];
+            int count = Long.bitCount(word);
+            if(rank < count) {
+                for(int j = 0; j < rank; j++) {
+                    word &= word - 1;       //clears the lowest bit
+                }
+                return i << 6 | Long.numberOfTrailingZeros(word);
+            }
+            rank -= count;
+        }
+        return -1;
+    }
+
+    //Number of cards of the given color in the player's hand
+    int getColorCount(CardColor cardColor) {
+        return counts[cardColor.ordinal()];
+    }
+
+    int getDiscard() {
+        return discard;
+    }
+
+    CardColor getColor() {
+        return color;
+    }
+
+    Direction getDirection() {
+        return direction;
+    }
+
+    boolean isDrawn() {
+        return drawn;
+    }
+
+    int getDrawPileSize() {
+        return drawPileSize;
+    }
+}
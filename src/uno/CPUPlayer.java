@@ -1,90 +1,48 @@
 /* CPUPlayer.java
- * Represents an AI player in a game of UNO
+ * The strategy of the AI players in a game of UNO, seated in a game by a BotPlayer (see Strategy)
+ * A CPUPlayer plays as soon as it is asked to, slowing its turns down for the user is done by the game's TurnPacer
  */
 
 package uno;
 
-import java.util.LinkedList;
-import java.util.Random;
+import java.util.SplittableRandom;
 
-public class CPUPlayer extends Player {
+public class CPUPlayer implements Strategy {
 
-    CPUPlayer(Hand hand, DiscardPile discardPile){
-        super(hand, discardPile);
-        AI = true;
+    //Seats a CPUPlayer, with its own random stream, in each game
+    static final PlayerFactory FACTORY = BotPlayer.factory(CPUPlayer::new);
+
+    private SplittableRandom random;        //this player's random stream, split from the game's generator
+
+    CPUPlayer(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public void reseed(SplittableRandom random) {
+        this.random = random;
     }
 
     /* AI plays their turn, there are 3 outcomes: playing a card, drawing a card and passing,
      * drawing a card and playing
+     * A random card is played from the playable cards, a card is only drawn when none is playable
+     * The color of a wild card is picked afterwards, based on availability (see Strategy.pickColor())
      */
     @Override
-    public boolean play() {
-        pause(2);
-        LinkedList <Card> playableCards = playableCards();
-        Hand hand = getHand();
-        if(playableCards.size() == 0) {
-            if(!isDrawn()) {
-                hand.drawCard(1);
-                setDrawn(true);
-                return play();
-            }
-            else
-                return false;
-        }
-        else
-            choosePlayableCard(playableCards);
-        return true;
+    public int decide(BotView view) {
+        int playableCount = view.getPlayableCount();
+        if(playableCount == 0)
+            return view.isDrawn() ? PASS : DRAW;
+        return Strategy.play(view.getPlayable(random.nextInt(playableCount)));
     }
 
-    //Compares each card in hand to the last(top) card of the discard pile, generating a list of playable cards
-    private LinkedList<Card> playableCards() {
-        LinkedList<Card> cards = getHand().cards();
-        Card discard = discardPile.getLast();                   //top card of the discard pile
-        LinkedList <Card> playableCards = new LinkedList<>();
-        for(Card card : cards) {
-            if(card.isPlayableOn(discard)) {
-                if(!card.getCardAction().equals(CardAction.DRAW4) || getHand().isWildDrawFourPlayable(discard))
-                    playableCards.addLast(card);
-            }
-        }
-        return playableCards;
+    //Returns the color that exists most in the hand, the hand keeps the number of cards of each color
+    static CardColor abundantColor(Hand hand) {
+        return abundantColor(hand.getColorCount(CardColor.BLUE), hand.getColorCount(CardColor.RED),
+                hand.getColorCount(CardColor.GREEN), hand.getColorCount(CardColor.YELLOW));
     }
 
-    //Plays a random card from the list of playable cards
-    private void choosePlayableCard(LinkedList <Card> playableCards) {
-        int size = playableCards.size();
-        int randomIndex;
-        Random rand = new Random();
-        randomIndex = rand.nextInt(size);
-        Card cardToPlay = playableCards.get(randomIndex);
-        getHand().playCard(cardToPlay);
-    }
-
-    //AI chooses a color for a wild card, color picking is based on availability
-    public void pickColor() {
-        int blue = 0;
-        int red = 0;
-        int green = 0;
-        int yellow = 0;
-        LinkedList <Card> cards = getHand().cards();
-        for(Card card : cards) {
-            if(card.getCardColor().equals(CardColor.BLUE))
-                blue++;
-            else if(card.getCardColor().equals(CardColor.RED))
-                red++;
-            else if(card.getCardColor().equals(CardColor.GREEN))
-                green++;
-            else if(card.getCardColor().equals(CardColor.YELLOW))
-                yellow++;
-        }
-        CardColor color = abundantColor(blue, red, green, yellow);
-        Card discard = discardPile.getLast();
-        discard.setCardColor(color);
-        discard.changeWildFace();
-    }
-
-    //Returns the color that exists most in this player's hand
-    private CardColor abundantColor(int blue, int red, int green, int yellow) {
+    static CardColor abundantColor(int blue, int red, int green, int yellow) {
         if(blue > red && blue > green && blue > yellow)
             return CardColor.BLUE;
         else if(red > green && red > yellow)
@@ -94,13 +52,4 @@ public class CPUPlayer extends Player {
         else
             return CardColor.YELLOW;
     }
-
-    //sleeps the thread for a given time to slow down AI playing, to mimic real life speed
-    private void pause(int secs) {
-        try {
-            Thread.sleep(secs * 1000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-    }
 }
\ No newline at end of file
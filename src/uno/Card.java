@@ -1,95 +1,191 @@
 /* Card.java
- * Represents a single card in an UNO game
+ * Represents the cards of an UNO game as small ids, one for each card of the decks in play
+ * Ids of the first deck (0 to 107) follow the order of the original deck: 25 cards per color (one 0, two of 1-9, two
+ * of each action card), then four wild cards and four wild draw four cards. A game with several decks (large tables)
+ * numbers the cards of deck d from d * DECK_SIZE, card id % DECK_SIZE is the card's face
+ * Identical cards (two red 5s, or the same card of two decks) share a kind, numbered densely from 0 to KIND_COUNT - 1
+ * so the searches (see Solver and Ismcts) can treat them as one card
+ * A card's color, number and action are looked up in tables, so piles can store cards in plain short arrays
+ * Sets of cards are also kept as bitsets of words(decks) longs, bit (id & 63) of word (id >>> 6) is set if the card is
+ * in the set, the cards that are playable on each face and color of the discard are precomputed as such a bitset
+ * (see playableMask()) covering every deck, so a game only reads the words of the decks it uses
+ * The visible side of a card is handled by CardButton
  */
 
 package uno;
 
-import javax.swing.*;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-
-public class Card extends JButton {
-
-    //Vertical and horizontal sizes of the card
-    static Dimension VERTICAL_SIZE = new Dimension(93, 130);
-    static Dimension HORIZONTAL_SIZE = new Dimension(VERTICAL_SIZE.height, VERTICAL_SIZE.width);
-
-    private CardColor color;                //color of the card
-    private final int number;               //number of the card, -1 if the card has no number
-    private final CardAction cardAction;    //cardAction of the card (draw 4, skip, etc...)
-    private BufferedImage face;             //image of the front side of the card
-    private BufferedImage back;             //image of the back side of the card
-
-    Card(CardColor color, int number, CardAction cardAction) {
-        this.color = color;
-        this.number = number;
-        this.cardAction = cardAction;
-        face = ImageProcessor.loadImage("/images/cards/" + color + " " + number + " " + cardAction + ".png");
-        back = ImageProcessor.loadImage("/images/cards/Back.png");
-        setFocusable(false);                    //Cards cannot have the system's focus, as it is reserved for key events
-        setCardIcon(false,0);
+import java.util.Arrays;
+
+final class Card {
+
+    static final int DECK_SIZE = 108;   //number of cards in a deck
+    static final int MAX_DECKS = 8;     //decks that can be combined in a game
+    static final int MAX_CARDS = MAX_DECKS * DECK_SIZE;
+    private static final int MAX_WORDS = words(MAX_DECKS);
+
+    private static final CardColor[] COLORS = new CardColor[MAX_CARDS];
+    private static final int[] NUMBERS = new int[MAX_CARDS];
+    private static final CardAction[] ACTIONS = new CardAction[MAX_CARDS];
+    private static final int[] FACES = new int[MAX_CARDS];
+    private static final int[] KINDS = new int[MAX_CARDS];
+    static final int KIND_COUNT;        //number of distinct cards in a deck
+    private static final int[] KIND_CARDS;      //lowest id of the cards of each kind
+    private static final int[] KIND_COPIES;     //cards of each kind in a deck
+    private static final int COLORS_PER_DISCARD = CardColor.values().length;
+    private static final long[] PLAYABLE = new long[DECK_SIZE * COLORS_PER_DISCARD * MAX_WORDS];
+    private static final long[] DRAW4 = new long[MAX_WORDS];   //bitset of the wild draw four cards
+
+    static {
+        int id = 0;
+        //colored cards
+        CardColor[] colors = CardColor.values();
+        for(int i = 0; i < 4; i++) {
+            id = define(id, colors[i], 0, CardAction.NONE);
+            for(int j = 1; j < 10; j++) {
+                id = define(id, colors[i], j, CardAction.NONE);
+                id = define(id, colors[i], j, CardAction.NONE);
+            }
+            for(int j = 0; j < 2; j++) {
+                id = define(id, colors[i], -1, CardAction.DRAW2);
+            }
+            for(int j = 0; j < 2; j++) {
+                id = define(id, colors[i], -1, CardAction.SKIP);
+            }
+            for(int j = 0; j < 2; j++) {
+                id = define(id, colors[i], -1, CardAction.REVERSE);
+            }
+        }
+        //wild cards
+        for(int j = 0; j < 4; j++) {
+            id = define(id, CardColor.WILD, -1, CardAction.NONE);
+        }
+        //wild draw 4 cards
+        for(int j = 0; j < 4; j++) {
+            id = define(id, CardColor.WILD, -1, CardAction.DRAW4);
+        }
+        //the other decks repeat the first one
+        for(; id < MAX_CARDS; id++) {
+            define(id, COLORS[id % DECK_SIZE], NUMBERS[id % DECK_SIZE], ACTIONS[id % DECK_SIZE]);
+        }
+        for(int card = 0; card < MAX_CARDS; card++) {
+            FACES[card] = card % DECK_SIZE;
+            if(ACTIONS[card] == CardAction.DRAW4)
+                DRAW4[card >>> 6] |= 1L << (card & 63);
+        }
+        //kinds, identical cards of a deck are next to each other
+        int kinds = 0;
+        int[] kindCards = new int[DECK_SIZE];
+        int[] kindCopies = new int[DECK_SIZE];
+        for(int card = 0; card < DECK_SIZE; card++) {
+            int last = kinds - 1;
+            if(kinds == 0 || COLORS[card] != COLORS[kindCards[last]] || NUMBERS[card] != NUMBERS[kindCards[last]] ||
+                    ACTIONS[card] != ACTIONS[kindCards[last]])
+                kindCards[kinds++] = card;
+            KINDS[card] = kinds - 1;
+            kindCopies[kinds - 1]++;
+        }
+        for(int card = DECK_SIZE; card < MAX_CARDS; card++) {
+            KINDS[card] = KINDS[FACES[card]];
+        }
+        KIND_COUNT = kinds;
+        KIND_CARDS = Arrays.copyOf(kindCards, kinds);
+        KIND_COPIES = Arrays.copyOf(kindCopies, kinds);
+        //cards playable on each discard face, for each color the discard can have
+        for(int discard = 0; discard < DECK_SIZE; discard++) {
+            for(CardColor color : colors) {
+                int offset = (discard * colors.length + color.ordinal()) * MAX_WORDS;
+                for(int card = 0; card < MAX_CARDS; card++) {
+                    if(isPlayableOn(card, discard, color))
+                        PLAYABLE[offset + (card >>> 6)] |= 1L << (card & 63);
+                }
+            }
+        }
     }
 
-    /*
-     * Sets the card's icon to face or back
-     * Rotates the icon's image
-     * Sets the size based on the rotation angle
-     */
-     void setCardIcon(boolean front, int displayAngle) {
-        if(front)
-            setIcon(new ImageIcon(ImageProcessor.rotateImage(face, displayAngle)));
-        else
-            setIcon(new ImageIcon(ImageProcessor.rotateImage(back, displayAngle)));
-        if(displayAngle == 90 || displayAngle == 270)
-            setPreferredSize(HORIZONTAL_SIZE);
-        else
-            setPreferredSize(VERTICAL_SIZE);
+    private Card() {}
+
+    //Fills in the tables for a card id and returns the next id
+    private static int define(int id, CardColor color, int number, CardAction cardAction) {
+        COLORS[id] = color;
+        NUMBERS[id] = number;
+        ACTIONS[id] = cardAction;
+        return id + 1;
     }
 
-    void setCardColor(CardColor color) {
-        this.color = color;
+    //Longs in a bitset of the cards of the given number of decks
+    static int words(int decks) {
+        return (decks * DECK_SIZE + 63) >>> 6;
     }
 
-    CardColor getCardColor() {
-        return color;
+    //Face of the card, the id of the same card in the first deck
+    static int getFace(int card) {
+        return FACES[card];
     }
 
-    int getNumber() {
-        return number;
+    //Kind of the card, shared by the cards identical to it
+    static int getKind(int card) {
+        return KINDS[card];
     }
 
-    CardAction getCardAction() {
-        return cardAction;
+    //Lowest id of the cards of the kind
+    static int getKindCard(int kind) {
+        return KIND_CARDS[kind];
     }
 
-    /*
-     * This method is reserved for wild cards
-     * It changes the image of the wild card to show what color has been picked by the player
-     */
-    void changeWildFace() {
-        if(cardAction == CardAction.DRAW4)
-            face = ImageProcessor.loadImage("/images/cards/WILD DRAW FOUR " + color + ".png");
-        else
-            face = ImageProcessor.loadImage("/images/cards/WILD " + color + ".png");
+    //Number of cards of the kind in a deck
+    static int getKindCopies(int kind) {
+        return KIND_COPIES[kind];
+    }
+
+    //Color of the card, WILD for wild cards (the color picked for a wild card is kept by the discard pile)
+    static CardColor getCardColor(int card) {
+        return COLORS[card];
+    }
+
+    //Number of the card, -1 if the card has no number
+    static int getNumber(int card) {
+        return NUMBERS[card];
+    }
+
+    //Action of the card (draw 4, skip, etc...)
+    static CardAction getCardAction(int card) {
+        return ACTIONS[card];
     }
 
     /*
-     * Checks if this card is playable on another card
+     * Checks if a card is playable on the discard
+     * discardColor is the color of the discard, which is the picked color if the discard is a wild card
      */
-    boolean isPlayableOn(Card discard) {
-        if(color.equals(discard.color) || color.equals(CardColor.WILD))
+    static boolean isPlayableOn(int card, int discard, CardColor discardColor) {
+        if(COLORS[card] == discardColor || COLORS[card] == CardColor.WILD)
             return true;
-        else if(number != -1 && number == discard.number)
+        else if(NUMBERS[card] != -1 && NUMBERS[card] == NUMBERS[discard])
             return true;
         else
-            return !cardAction.equals(CardAction.NONE) && cardAction.equals(discard.cardAction);
+            return ACTIONS[card] != CardAction.NONE && ACTIONS[card] == ACTIONS[discard];
+    }
+
+    /* Returns a word of the bitset of the cards that are playable on the discard, following isPlayableOn()
+     * Wild draw four cards are always in the set, whether the hand allows them is checked by the hand
+     */
+    static long playableMask(int discard, CardColor discardColor, int word) {
+        return PLAYABLE[(FACES[discard] * COLORS_PER_DISCARD + discardColor.ordinal()) * MAX_WORDS + word];
+    }
+
+    //Returns a word of the bitset of the wild draw four cards
+    static long draw4Mask(int word) {
+        return DRAW4[word];
     }
 
     /*
-     * Checks if this card matches the color of another card
+     * Checks if a card matches the color of the discard
      * This method is used to check if a wild card is playable
      */
-    boolean matchesColor(Card discard) {
-        return color.equals(discard.color);
+    static boolean matchesColor(int card, CardColor discardColor) {
+        return COLORS[card] == discardColor;
+    }
+
+    static String toString(int card) {
+        return COLORS[card] + " " + NUMBERS[card] + " " + ACTIONS[card];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,150 @@
+/* CardAtlas.java
+ * Every card face (with the faces of the wild cards for each picked color) and the card back at the four angles of
+ * the table, copied once into a single image so the table canvas paints a card with one drawImage call
+ * The rounded corners of the cards are blended with the table's background once, when the atlas is built, so the atlas
+ * is opaque and painting a card is a plain copy of its pixels with no blending
+ * The atlas is a compatible image of the screen, and it is copied to a VolatileImage when painted on screen so the
+ * copies are done by the graphics pipeline. The volatile copy is restored from the atlas whenever its contents are lost
+ * The images come from ImageProcessor's cache, so an atlas built after Startup preloaded the assets decodes nothing
+ */
+
+package uno;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.HashMap;
+import java.util.Map;
+
+final class CardAtlas {
+
+    private static final int COLUMNS = 16;              //upright sprites in a row of the atlas
+    private static final int COLORS = CardColor.values().length;
+
+    private static CardAtlas atlas;
+    private static Color atlasBackground;               //background the atlas was built for
+
+    private final BufferedImage sprites;
+    private VolatileImage accelerated;                  //copy of sprites in the screen's memory, null until painted
+    private final int[] faces;                          //sprite of each face, indexed by face * COLORS + wild color
+    private final int[] backs;                          //sprite of the back, indexed by angle / 90
+    private final int[] x;                              //position and size of each sprite in the atlas
+    private final int[] y;
+    private final int[] width;
+    private final int[] height;
+
+    /* Lays out the upright sprites (the faces and the back at 0 and 180 degrees) in rows of COLUMNS, then the sideways
+     * backs in the last row, on the given background
+     */
+    private CardAtlas(Color background) {
+        Map<String, Integer> paths = new HashMap<>();
+        faces = new int[Card.DECK_SIZE * COLORS];
+        for(int face = 0; face < Card.DECK_SIZE; face++) {
+            for(CardColor color : CardColor.values()) {
+                String path = CardButton.facePath(face, color);
+                Integer sprite = paths.get(path);
+                if(sprite == null) {
+                    sprite = paths.size();
+                    paths.put(path, sprite);
+                }
+                faces[face * COLORS + color.ordinal()] = sprite;
+            }
+        }
+        int upright = paths.size() + 2;
+        int count = upright + 2;
+        BufferedImage back = ImageProcessor.loadImage(CardButton.BACK);
+        int cardWidth = back.getWidth();
+        int cardHeight = back.getHeight();
+        x = new int[count];
+        y = new int[count];
+        width = new int[count];
+        height = new int[count];
+        for(int sprite = 0; sprite < count; sprite++) {
+            boolean sideways = sprite >= upright;
+            int index = sideways ? sprite - upright : sprite;
+            int row = sideways ? (upright + COLUMNS - 1) / COLUMNS : index / COLUMNS;
+            x[sprite] = sideways ? index * cardHeight : index % COLUMNS * cardWidth;
+            y[sprite] = row * cardHeight;
+            width[sprite] = sideways ? cardHeight : cardWidth;
+            height[sprite] = sideways ? cardWidth : cardHeight;
+        }
+        backs = new int[] {upright - 2, upright, upright - 1, upright + 1};
+        sprites = compatibleImage(COLUMNS * cardWidth, y[count - 1] + cardWidth);
+        Graphics2D g = sprites.createGraphics();
+        g.setColor(background);
+        g.fillRect(0, 0, sprites.getWidth(), sprites.getHeight());
+        for(Map.Entry<String, Integer> entry : paths.entrySet()) {
+            int sprite = entry.getValue();
+            g.drawImage(ImageProcessor.loadImage(entry.getKey()), x[sprite], y[sprite], null);
+        }
+        for(int angle = 0; angle < 360; angle += 90) {
+            int sprite = backs[angle / 90];
+            g.drawImage(ImageProcessor.rotateImage(back, angle), x[sprite], y[sprite], null);
+        }
+        g.dispose();
+    }
+
+    //The atlas is built the first time it is needed, and again if the background of the table changed
+    static synchronized CardAtlas get(Color background) {
+        if(atlas == null || !background.equals(atlasBackground)) {
+            atlas = new CardAtlas(background);
+            atlasBackground = background;
+        }
+        return atlas;
+    }
+
+    //An image in the screen's format, so copying it to the screen needs no conversion, or a plain one without a screen
+    private static BufferedImage compatibleImage(int width, int height) {
+        if(GraphicsEnvironment.isHeadless())
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleImage(width, height, Transparency.OPAQUE);
+    }
+
+    /* Returns the image to paint the sprites from on a component of the given configuration
+     * On screen this is the accelerated copy, which is created or restored here when needed. Off screen (a null
+     * configuration) the atlas itself is returned
+     */
+    Image image(GraphicsConfiguration configuration) {
+        if(configuration == null)
+            return sprites;
+        int state = accelerated == null ? VolatileImage.IMAGE_INCOMPATIBLE : accelerated.validate(configuration);
+        if(state == VolatileImage.IMAGE_INCOMPATIBLE)
+            accelerated = configuration.createCompatibleVolatileImage(sprites.getWidth(), sprites.getHeight());
+        if(state != VolatileImage.IMAGE_OK) {
+            Graphics2D g = accelerated.createGraphics();
+            g.drawImage(sprites, 0, 0, null);
+            g.dispose();
+        }
+        return accelerated;
+    }
+
+    //Checks if the accelerated copy was lost while it was painted from, the frame must then be painted again
+    boolean contentsLost() {
+        return accelerated != null && accelerated.contentsLost();
+    }
+
+    //Sprite of a card's face, a wild card's face shows the given color (WILD if no color was picked)
+    int face(int card, CardColor wildColor) {
+        return faces[Card.getFace(card) * COLORS + wildColor.ordinal()];
+    }
+
+    //Sprite of the back of a card displayed at the given angle (0, 90, 180 or 270)
+    int back(int angle) {
+        return backs[angle / 90];
+    }
+
+    int width(int sprite) {
+        return width[sprite];
+    }
+
+    int height(int sprite) {
+        return height[sprite];
+    }
+
+    //Copies a sprite from the image returned by image() to the given position
+    void draw(Graphics g, Image image, int sprite, int dx, int dy) {
+        g.drawImage(image, dx, dy, dx + width[sprite], dy + height[sprite],
+                x[sprite], y[sprite], x[sprite] + width[sprite], y[sprite] + height[sprite], null);
+    }
+}
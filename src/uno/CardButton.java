@@ -0,0 +1,72 @@
+/* CardButton.java
+ * The visible side of a single card, the GUI creates one button for each card id and reuses it in every game
+ */
+
+package uno;
+
+import javax.swing.*;
+import java.awt.*;
+
+public class CardButton extends JButton {
+
+    //Vertical and horizontal sizes of the card
+    static Dimension VERTICAL_SIZE = new Dimension(93, 130);
+    static Dimension HORIZONTAL_SIZE = new Dimension(VERTICAL_SIZE.height, VERTICAL_SIZE.width);
+
+    static final String BACK = "/images/cards/Back.png";
+
+    private final int card;                 //id of the card shown by this button
+    private final String facePath;          //resource path of the front side image
+
+    CardButton(int card) {
+        this.card = card;
+        facePath = facePath(card, CardColor.WILD);
+        setFocusable(false);                    //Cards cannot have the system's focus, as it is reserved for key events
+    }
+
+    /*
+     * Sets the card's icon to face or back
+     * Rotates the icon's image
+     * Sets the size based on the rotation angle
+     */
+    void setCardIcon(boolean front, int displayAngle) {
+        setCardIcon(front, displayAngle, CardColor.WILD);
+    }
+
+    /*
+     * Same as setCardIcon(front, displayAngle), a wild card's face shows the given color
+     * This is used for the top of the discard pile, to show what color has been picked by the player
+     * Icons come from ImageProcessor's cache, which rotates each image only once for each angle
+     */
+    void setCardIcon(boolean front, int displayAngle, CardColor wildColor) {
+        if(front)
+            setIcon(ImageProcessor.loadIcon(facePath(wildColor), displayAngle));
+        else
+            setIcon(ImageProcessor.loadIcon(BACK, displayAngle));
+        if(displayAngle == 90 || displayAngle == 270)
+            setPreferredSize(HORIZONTAL_SIZE);
+        else
+            setPreferredSize(VERTICAL_SIZE);
+    }
+
+    //Resource path of the face image, wild cards with a picked color have a face for each color
+    private String facePath(CardColor wildColor) {
+        if(Card.getCardColor(card) != CardColor.WILD || wildColor == CardColor.WILD)
+            return facePath;
+        return facePath(card, wildColor);
+    }
+
+    //Resource path of the face image of any card, also used to preload the faces (see Startup)
+    static String facePath(int card, CardColor wildColor) {
+        if(Card.getCardColor(card) != CardColor.WILD || wildColor == CardColor.WILD)
+            return "/images/cards/" + Card.toString(card) + ".png";
+        else if(Card.getCardAction(card) == CardAction.DRAW4)
+            return "/images/cards/WILD DRAW FOUR " + wildColor + ".png";
+        else
+            return "/images/cards/WILD " + wildColor + ".png";
+    }
+
+    int getCard() {
+        return card;
+    }
+}
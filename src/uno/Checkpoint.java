@@ -0,0 +1,119 @@
+/* Checkpoint.java
+ * Keeps the last snapshot of the desktop game (see GameSnapshot) in a memory-mapped file, so a game that was cut short
+ * by a crash is resumed when the game is started again
+ * The file has two slots that are written in turn, each one holding a sequence number, the snapshot's length, a CRC32
+ * of both and of the snapshot, then the snapshot. A save only overwrites the older slot, so a save that is cut short
+ * leaves the previous snapshot intact, and load() returns the newest slot whose CRC matches
+ * Saving is a copy to the mapped file, which the operating system writes to the disk on its own: a crash of the JVM
+ * loses nothing, a crash of the machine may lose the last few snapshots
+ */
+
+package uno;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+public class Checkpoint implements Closeable {
+
+    private static final int SLOT_HEADER = 8 + 4 + 4;      //sequence, length, CRC
+    private static final int SLOT_SIZE = SLOT_HEADER + GameSnapshot.MAX_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer file;
+    private final ByteBuffer snapshot;      //snapshot being saved or loaded
+    private final CRC32 crc;
+    private long sequence;                  //sequence number of the newest slot, 0 if nothing was saved
+
+    //Opens a checkpoint file, the file is created if it doesn't exist
+    Checkpoint(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        file = channel.map(FileChannel.MapMode.READ_WRITE, 0, 2 * SLOT_SIZE);
+        snapshot = ByteBuffer.allocate(GameSnapshot.MAX_SIZE);
+        crc = new CRC32();
+        sequence = Math.max(validSequence(0), validSequence(1));
+    }
+
+    //Saves a snapshot of the game, which replaces the snapshot saved before
+    void save(Game game) {
+        snapshot.clear();
+        GameSnapshot.write(game, snapshot);
+        snapshot.flip();
+        write();
+    }
+
+    //Saves an empty slot, load() returns null until the next save
+    void clear() {
+        snapshot.clear();
+        snapshot.flip();
+        write();
+    }
+
+    //Copies the snapshot buffer to the older slot
+    private void write() {
+        sequence++;
+        int slot = (int) (sequence & 1) * SLOT_SIZE;
+        int length = snapshot.remaining();
+        file.putLong(slot, sequence);
+        file.putInt(slot + 8, length);
+        file.putInt(slot + 12, checksum(sequence, length, snapshot.duplicate()));
+        file.position(slot + SLOT_HEADER);
+        file.put(snapshot);
+    }
+
+    /* Returns the newest snapshot, null if nothing was saved or the newest slot was cleared
+     * The buffer is reused by the next call to save() or load()
+     */
+    ByteBuffer load() {
+        if(sequence == 0)
+            return null;
+        int slot = (int) (sequence & 1) * SLOT_SIZE;
+        int length = file.getInt(slot + 8);
+        if(length == 0)
+            return null;
+        ByteBuffer saved = file.duplicate();
+        saved.position(slot + SLOT_HEADER);
+        saved.limit(slot + SLOT_HEADER + length);
+        snapshot.clear();
+        snapshot.put(saved);
+        snapshot.flip();
+        return snapshot;
+    }
+
+    //Sequence number of a slot, 0 if the slot is empty or was not written completely
+    private long validSequence(int index) {
+        int slot = index * SLOT_SIZE;
+        long slotSequence = file.getLong(slot);
+        int length = file.getInt(slot + 8);
+        if(slotSequence <= 0 || length < 0 || length > GameSnapshot.MAX_SIZE)
+            return 0;
+        ByteBuffer saved = file.duplicate();
+        saved.position(slot + SLOT_HEADER);
+        saved.limit(slot + SLOT_HEADER + length);
+        return checksum(slotSequence, length, saved) == file.getInt(slot + 12) ? slotSequence : 0;
+    }
+
+    private int checksum(long slotSequence, int length, ByteBuffer saved) {
+        crc.reset();
+        for(int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (slotSequence >>> shift));
+        }
+        for(int shift = 24; shift >= 0; shift -= 8) {
+            crc.update(length >>> shift);
+        }
+        crc.update(saved);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.force();
+        channel.close();
+    }
+}
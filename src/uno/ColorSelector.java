@@ -69,18 +69,17 @@ public class ColorSelector extends JDialog implements ActionListener {
             timer.stop();       //stop timer as soon as it starts, because we only want it to fire one action event
         }
         else {
-            Card discard = game.getDiscardPile().getLast();
+            CardColor color;
             if (e.getSource() == colorButtons[0])
-                discard.setCardColor(CardColor.RED);
+                color = CardColor.RED;
             else if (e.getSource() == colorButtons[1])
-                discard.setCardColor(CardColor.YELLOW);
+                color = CardColor.YELLOW;
             else if (e.getSource() == colorButtons[2])
-                discard.setCardColor(CardColor.GREEN);
+                color = CardColor.GREEN;
             else
-                discard.setCardColor(CardColor.BLUE);
-            discard.changeWildFace();
-            game.countDown();
-            setVisible(false);
+                color = CardColor.BLUE;
+            if(game.getInbox().send(PlayerAction.color(color)))     //the game thread sets the color
+                setVisible(false);
         }
     }
 }
\ No newline at end of file
@@ -1,61 +1,84 @@
 /* Deck.java
  * Maintains the lists of cards in the game
+ * Cards are stored by id (see Card) in an array, the last card of the array is the top of the deck
+ * The array holds every card of the game's decks, so a list never grows
  */
 
 package uno;
 
-import javax.swing.*;
-import java.util.LinkedList;
+public abstract class Deck {
 
-public abstract class Deck extends JPanel {
+    protected short[] cards;
+    protected int size;
 
-    protected LinkedList<Card> cards;
-
-    Deck() {
-        cards = new LinkedList<>();
+    //A list that can hold every card of the given number of decks
+    Deck(int decks) {
+        cards = new short[decks * Card.DECK_SIZE];
+        size = 0;
     }
 
     public abstract void createDeck();
 
-    public LinkedList<Card> cards() {
-        return cards;
-    }
-
-    //Adds a card to the list
-    public void addCard(Card card) {
-        cards.addLast(card);
+    //Adds a card to the end of the list
+    public void addCard(int card) {
+        cards[size++] = (short) card;
     }
 
     //Removes and returns the last card in this list
-    public Card draw() {
-        return cards.removeLast();
+    public int draw() {
+        return cards[--size];
     }
 
-    //Returns the last card without removal
-    public Card getLast() {
-        if(cards.size() != 0)
-            return cards.getLast();
+    //Returns the last card without removal, -1 if the list is empty
+    public int getLast() {
+        if(size != 0)
+            return cards[size - 1];
         else
-            return null;
+            return -1;
+    }
+
+    //Returns the card at the given index
+    public int get(int index) {
+        return cards[index];
+    }
+
+    //Returns the index of a card in this list, -1 if the card is not in this list
+    public int indexOf(int card) {
+        for(int i = 0; i < size; i++) {
+            if(cards[i] == card)
+                return i;
+        }
+        return -1;
+    }
+
+    //Removes the card at the given index, cards after it are shifted to keep their order
+    public int remove(int index) {
+        int card = cards[index];
+        System.arraycopy(cards, index + 1, cards, index, size - index - 1);
+        size--;
+        return card;
     }
 
     //Removes all the cards from the list of cards
     public void removeCards() {
-        for(int i = 0; i < cards.size(); i++) {
-            cards.remove(i);
-        }
+        size = 0;
     }
 
     //Size of the list of cards
     public int getLength() {
-        return cards.size();
+        return size;
+    }
+
+    //Number of decks whose cards the list can hold
+    int getDecks() {
+        return cards.length / Card.DECK_SIZE;
     }
 
     //test method: prints all cards in a deck
     public void printCards() {
-        for(int i = 0; i < cards.size(); i++) {
-            System.out.println(i + 1 + ". " + cards.get(i).getCardColor().toString() + " " + cards.get(i).getNumber() + " " + cards.get(i).getCardAction().toString());
+        for(int i = 0; i < size; i++) {
+            System.out.println(i + 1 + ". " + Card.toString(cards[i]));
         }
         System.out.println();
     }
-}
\ No newline at end of file
+}
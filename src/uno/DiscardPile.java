@@ -1,46 +1,65 @@
 /* DiscardPile.java
  * Players place their cards on this pile
+ * Keeps track of the color picked by the player when the top card is a wild card
  */
 
 package uno;
 
-import javax.swing.*;
-
 public class DiscardPile extends Deck {
 
     private DrawPile drawPile;
+    private CardColor wildColor;        //color picked for the top card if it is wild, WILD if not picked yet
 
     DiscardPile(DrawPile drawPile) {
+        super(drawPile.getDecks());
         this.drawPile = drawPile;
+        wildColor = CardColor.WILD;
     }
 
     //Starts the discard pile from the last card in the draw pile
     @Override
     public void createDeck() {
-        Card card = drawPile.draw();
-        cards.addLast(card);
+        addCard(drawPile.draw());
     }
 
-    /* Displays the last(top) card
-     * The removeAll() call is made because components are replaced at least once every turn
-     */
-    public void renderCards(JPanel panel) {
-        removeAll();
-        if(cards.size() != 0) {
-            Card last = cards.getLast();
-            last.setCardIcon(true,0);
-            add(last);
-            panel.add(this);
-        }
+    //A new top card has no picked color
+    @Override
+    public void addCard(int card) {
+        super.addCard(card);
+        wildColor = CardColor.WILD;
+    }
+
+    @Override
+    public int draw() {
+        wildColor = CardColor.WILD;
+        return super.draw();
     }
 
     /* Returns all the cards to the draw pile
      * This method is used when the draw pile is depleted mid-game
      */
     public void returnCards() {
-        for(Card card : cards) {
-            drawPile.addCard(card);
-            cards.remove(card);
+        for(int i = 0; i < size; i++) {
+            drawPile.addCard(cards[i]);
         }
+        removeCards();
+        wildColor = CardColor.WILD;
+    }
+
+    //Sets the color picked by the player for the wild card on top of this pile
+    void setWildColor(CardColor wildColor) {
+        this.wildColor = wildColor;
+    }
+
+    CardColor getWildColor() {
+        return wildColor;
+    }
+
+    //Color that must be matched by the next card, which is the picked color if the top card is wild
+    CardColor getColor() {
+        CardColor color = Card.getCardColor(getLast());
+        if(color == CardColor.WILD)
+            return wildColor;
+        return color;
     }
-}
\ No newline at end of file
+}
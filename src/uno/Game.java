@@ -1,139 +1,438 @@
 /* Game.java
  * Handles the initialization process of the game
  * Contains the game loop
+ * A game has 2 to MAX_PLAYERS players, large tables play with several decks combined (see decksFor())
  */
 
 package uno;
 
 import java.awt.*;
-import java.util.Random;
-import java.util.concurrent.CountDownLatch;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 public class Game implements Runnable {
 
+    static final int MAX_PLAYERS = 20;
+    private static final int PLAYERS_PER_DECK = 10;     //a deck is added for every 10 players
+
     private DrawPile drawPile;
     private DiscardPile discardPile;
     private WelcomeScreen welcomeScreen;
     private GameGUI gameGUI;
+    private GameView view;                      //notified of state changes, the GUI or GameView.HEADLESS
     private ColorSelector colorSelector;
     private Direction direction;
     private boolean running;
     private Player [] players;
     private int currentTurn;                    //index of the player in the players array that has the current turn
-    private CountDownLatch countDownLatch;      //used to pause/resume thread execution, must be reset every time used
-
-    private Game() {
-        drawPile = new DrawPile();
-        discardPile = new DiscardPile(drawPile);
+    private int turns;                          //number of turns played in the current game
+    private int turnLimit;                      //ends the game after this many turns, 0 means no limit
+    private int winner;                         //index of the player that won, -1 if there is no winner yet
+    private long seed;                          //seed of the current game, the game is reproduced from it
+    private long streamSeed;                    //seed the random streams were last started from, see reseed()
+    private SplittableRandom random;            //game's generator, split into a stream for each use
+    private SplittableRandom deckRandom;        //stream used to shuffle the draw pile
+    private GameLog log;                        //records every action of the game, null if the game is not logged
+    private final ActionInbox inbox;            //actions of the user, taken by the game thread
+    private TurnPacer pacer;                    //slows down the CPU turns, TurnPacer.TURBO for headless games
+    private boolean turnDue;                    //the pace of the current CPU turn has elapsed, see cycle()
+    private Executor gameThread;                //runs the desktop game, null for headless games
+    private PlayerFactory bot;                  //creates the AI players of the desktop game
+    private Checkpoint checkpoint;              //saves the desktop game after every turn, null if it isn't saved
+
+    private Game(int decks) {
+        initPiles(decks);
+        view = GameView.HEADLESS;               //replaced by the GUI once it is created
         direction = Direction.CW;
         running = false;
-        countDownLatch = new CountDownLatch(1); //countDown() must be called once to resume thread
+        winner = -1;
+        inbox = new ActionInbox();
+        pacer = TurnPacer.TURBO;
+        bot = CPUPlayer.FACTORY;
+    }
+
+    /* Creates a game that runs without a GUI, audio or pauses, where every player is AI
+     * Headless games are played by calling simulate() and are used to play many games back to back
+     */
+    static Game headless(int playerCount) {
+        return headless(playerCount, Randomness.newSeed());
+    }
+
+    //Creates a headless game that is reproduced exactly by using the same seed
+    static Game headless(int playerCount, long seed) {
+        return headless(playerCount, decksFor(playerCount), seed);
     }
 
-    public static void main(String [] args) {
-        Game game = new Game();
-        GameAudio.load(GameAudio.SILENT);   //silent audio is played because the first audio clip is delayed
-        GameAudio.play();
+    //Creates a headless game played with the given number of decks combined
+    static Game headless(int playerCount, int decks, long seed) {
+        checkPlayers(playerCount);
+        if(decks < decksFor(playerCount) || decks > Card.MAX_DECKS)
+            throw new IllegalArgumentException("Number of decks must be " + decksFor(playerCount) + " to " +
+                    Card.MAX_DECKS + " for " + playerCount + " players");
+        Game game = new Game(decks);
+        game.initPlayerSize(playerCount);
+        game.seed = seed;
+        return game;
+    }
+
+    //Number of decks a table of the given number of players plays with
+    static int decksFor(int playerCount) {
+        return (playerCount + PLAYERS_PER_DECK - 1) / PLAYERS_PER_DECK;
+    }
+
+    static void checkPlayers(int playerCount) {
+        if(playerCount < 2 || playerCount > MAX_PLAYERS)
+            throw new IllegalArgumentException("Number of players must be 2 to " + MAX_PLAYERS);
+    }
+
+    /* Starts the desktop game, CPU turns take TurnPacer.HUMAN_PACE milliseconds unless a pace is given
+     * The AI players are CPUPlayers unless another strategy is given (see Tournament.strategy())
+     * Latency metrics are exposed over JMX, and printed every given number of seconds with -metrics (see Metrics)
+     * With -canvas, the table is painted on a single component (see TableCanvas) instead of a button per card
+     * The GUI renders at most RenderScheduler.DEFAULT_FPS frames per second unless another cap is given with -fps
+     * With -save, the game is saved to the file after every turn, and a game that didn't end is resumed on the next
+     * start
+     * With -log, every game is appended to the log file (see GameLog), a resumed game goes on after a RESUME record
+     * Usage: java uno.Game [-turbo | -pace millis] [-bot strategy] [-metrics seconds] [-canvas] [-fps frames]
+     *                      [-save file] [-log file]
+     */
+    public static void main(String [] args) throws IOException {
+        Game game = new Game(1);
+        long pace = TurnPacer.HUMAN_PACE;
+        boolean canvas = false;
+        int fps = RenderScheduler.DEFAULT_FPS;
+        for(int i = 0; i < args.length; i++) {
+            if(args[i].equals("-canvas"))
+                canvas = true;
+            else if(args[i].equals("-fps") && i + 1 < args.length)
+                fps = Integer.parseInt(args[++i]);
+            else if(args[i].equals("-save") && i + 1 < args.length)
+                game.checkpoint = new Checkpoint(Paths.get(args[++i]));
+            else if(args[i].equals("-log") && i + 1 < args.length)
+                game.log = new GameLog(Paths.get(args[++i]));
+            else if(args[i].equals("-turbo"))
+                pace = 0;
+            else if(args[i].equals("-pace") && i + 1 < args.length)
+                pace = Long.parseLong(args[++i]);
+            else if(args[i].equals("-bot") && i + 1 < args.length)
+                game.bot = Tournament.strategy(args[++i], Runtime.getRuntime().availableProcessors());
+            else if(args[i].equals("-metrics") && i + 1 < args.length)
+                Metrics.startDump(Long.parseLong(args[++i]), System.out);
+        }
+        game.pacer = new TurnPacer(pace);
+        if(game.log != null)
+            Runtime.getRuntime().addShutdownHook(new Thread(game::closeLog, "Log closer"));
+        Startup.preloadAssets();            //decodes the images and sounds in the background, see Startup
+        boolean tableCanvas = canvas;
+        int maxFps = fps;
         Runnable runnable = () -> {
             game.welcomeScreen = new WelcomeScreen(game);
-            game.gameGUI = new GameGUI(game, game.welcomeScreen);
+            game.gameGUI = new GameGUI(game, game.welcomeScreen, tableCanvas, maxFps);
+            game.view = game.gameGUI;
             game.colorSelector = new ColorSelector(game);
         };
         EventQueue.invokeLater(runnable);   //handles GUI components in the Event Dispatch Thread,
                                             //as required for all swing components
-        Thread thread = new Thread(game);   //backend side of the game runs on a separate thread
-        thread.start();
+        game.gameThread = Executors.newSingleThreadExecutor(task -> new Thread(task, "Game"));
+        game.gameThread.execute(game);      //backend side of the game runs on a separate thread
     }
 
-    //Called implicitly when the thread starts, then explicitly each time the game is restarted played again
+    //Runs on the game thread when the game starts, then each time the game is played again (see reset())
     @Override
     public void run() {
-        waitOnModeSelection();
+        boolean resumed = resumeCheckpoint();
+        if(!resumed) {
+            waitOnModeSelection();
+            Startup.modeSelected();
+            seed = Randomness.newSeed();
+            initRandom();
+            initDrawPile();
+            if(log != null)
+                log.start(players.length, seed, drawPile);
+            initPlayers(initHands());
+        }
+        gameGUI.initGameView(players);
+        ((HumanPlayer)players[0]).addListeners();
+        if(!resumed) {
+            dealHands();
+            initDiscardPile();
+            randomTurn();
+        }
+        gameGUI.setVisible(true);
+        gameGUI.requestRender();
+        if(!resumed)
+            roundOneCheck();
+        running = true;
+        cycle();
+    }
+
+    //Closes the desktop game's log as the program exits, so the log's header says where its records end
+    private void closeLog() {
+        try {
+            log.close();
+        } catch(IOException e) {
+            System.err.println("Unable to close the game log: " + e);
+        }
+    }
+
+    /* Restores the desktop game saved by the checkpoint, if there is one and it didn't end
+     * The welcome screen, shown by the Event Dispatch Thread as the game starts, is hidden
+     * Returns false if there is no game to resume, a snapshot that can't be read is dropped
+     */
+    private boolean resumeCheckpoint() {
+        if(checkpoint == null)
+            return false;
+        ByteBuffer snapshot = checkpoint.load();
+        if(snapshot == null)
+            return false;
+        try {
+            EventQueue.invokeAndWait(() -> welcomeScreen.setVisible(false));   //runs after the GUI is created
+            GameSnapshot.read(snapshot, this);
+            if(log != null)
+                log.resume(this);
+            return true;
+        } catch(RuntimeException e) {
+            System.err.println("Unable to resume the saved game: " + e);
+            checkpoint.clear();
+            drawPile.removeCards();
+            discardPile.removeCards();
+            EventQueue.invokeLater(() -> welcomeScreen.setVisible(true));
+            return false;
+        } catch(InterruptedException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /* Plays a full headless game where every player is a CPUPlayer
+     * Returns the index of the player that won, or -1 if nobody won before the turn limit (0 means no limit)
+     */
+    int simulate(int turnLimit) {
+        PlayerFactory[] seats = new PlayerFactory[players.length];
+        for(int i = 0; i < seats.length; i++) {
+            seats[i] = CPUPlayer.FACTORY;
+        }
+        return simulate(seats, turnLimit);
+    }
+
+    /* Plays a full headless game, following the same rules as run() without any user interaction
+     * seats[i] creates the player at index i, players must not wait for user input
+     * Returns the index of the player that won, or -1 if nobody won before the turn limit (0 means no limit)
+     */
+    int simulate(PlayerFactory[] seats, int turnLimit) {
+        this.turnLimit = turnLimit;
+        start(seats);
+        cycle();
+        return winner;
+    }
+
+    /* Sets up a headless game up to its first turn, seats[i] creates the player at index i
+     * Turns can then be played one at a time with playTurn() while the game is running
+     */
+    void start(PlayerFactory[] seats) {
+        initRandom();
         initDrawPile();
-        Hand[] hands = new Hand[players.length];
-        if(players.length == 2)
-            initTwoHands(hands);
-        else
-            initFourHands(hands);
-        initPlayers(hands);
-        HumanPlayer humanPlayer = (HumanPlayer)players[0];
-        humanPlayer.addListeners();
+        if(log != null)
+            log.start(players.length, seed, drawPile);
+        Hand[] hands = initHands();
+        for(int i = 0; i < players.length; i++) {
+            players[i] = seats[i].create(hands[i], discardPile, random.split());
+            players[i].seat(this, i);
+        }
         dealHands();
         initDiscardPile();
         randomTurn();
-        gameGUI.setVisible(true);
-        gameGUI.startTimer();
         roundOneCheck();
         running = true;
-        cycle();
+    }
+
+    /* Sets up a game in the middle of play instead of dealing a new one, used by searches to play out a
+     * determinized copy of a game and to restore snapshots (see GameSnapshot)
+     * The piles must already hold their cards (see getDrawPile(), getDiscardPile())
+     * hands[i] holds the handSizes[i] cards of the player at index i, who is created by seats[i], or seats is null
+     * to seat the user and the bots of the desktop game
+     */
+    void resume(PlayerFactory[] seats, short[][] hands, int[] handSizes, int currentTurn, Direction direction) {
+        initRandom();
+        Hand[] playerHands = initHands();
+        for(int i = 0; i < players.length; i++) {
+            for(int j = 0; j < handSizes[i]; j++) {
+                playerHands[i].addCard(hands[i][j]);
+            }
+        }
+        if(seats == null)
+            initPlayers(playerHands);
+        else {
+            for(int i = 0; i < players.length; i++) {
+                players[i] = seats[i].create(playerHands[i], discardPile, random.split());
+                players[i].seat(this, i);
+            }
+        }
+        this.currentTurn = currentTurn;
+        this.direction = direction;
+        running = true;
     }
 
     /* Game loop
-     * The reverse, wild, and action card checks only occur if the player has played a card during the current turn
-     * This is to ensure that the checks aren't called on a card that was played by a player other than that who has
+     * The effects of the top card are only applied if the player has played a card during the current turn
+     * This is to ensure that the effects aren't applied for a card that was played by a player other than that who has
      * the current turn
+     * CPU turns are paced by the game's pacer, which does nothing in turbo mode: the loop returns, and the pacer runs
+     * it again on the game thread once the turn is due, so no thread waits while the user watches a CPU turn
+     * The desktop game ends once the loop stops (see end())
      */
     private void cycle() {
+        boolean timed = gameGUI != null;        //only the desktop game's turns are timed, simulations aren't slowed
         while(running) {
-            boolean played;                         //keeps track of whether the current player played
-            Player player = players[currentTurn];
-            played = player.play();
-            if(played) {
-                reverseCheck();
-                wildCheck();
-                actionCardCheck(getNextTurn());
+            boolean ai = players[currentTurn].isAI();
+            if(!turnDue) {
+                if(checkpoint != null) {
+                    reseed();
+                    checkpoint.save(this);
+                }
+                if(!pacer.isTurbo() && ai) {
+                    turnDue = true;
+                    pacer.schedule(() -> gameThread.execute(this::cycle));
+                    return;
+                }
             }
-            player.getHand().setSelected(null);
-            player.setDrawn(false);
-            passTurn();
-            checkDrawPile();
-            gameGUI.startTimer();
-            checkWinner(player);
+            turnDue = false;
+            long start = timed ? System.nanoTime() : 0;
+            playTurn();
+            if(timed && ai)
+                Metrics.CPU_TURN.recordSince(start);
         }
+        if(gameThread != null)
+            end();
+    }
+
+    //Ends the desktop game once its loop stops
+    private void end() {
+        ((HumanPlayer)players[0]).removeListeners();
+        if(checkpoint != null)
+            checkpoint.clear();         //the game ended, the next start shows the welcome screen
+        reset();
+    }
+
+    //Plays the current player's turn, running is set to false when the game ends
+    void playTurn() {
+        boolean played;                         //keeps track of whether the current player played
+        int playerIndex = currentTurn;
+        Player player = players[playerIndex];
+        if(log != null)
+            log.turn();
+        played = player.play();
+        if(log != null && !played)
+            log.pass(playerIndex);
+        player.setDrawn(false);
+        if(played)
+            resolvePlay();
+        else
+            passTurn();
+        checkDrawPile();
+        view.refresh();
+        inbox.resolve();
+        turns++;
+        checkWinner(playerIndex);
+        if(turnLimit != 0 && turns >= turnLimit)
+            running = false;
+        if(log != null && !running)
+            log.end(winner);
     }
 
     /* Removes all cards from the draw pile and the discard pile
      * Sets the direction to the initial direction (CW)
-     * Calls run, which asks the user to select a mode to start a new game
+     * Runs the game again on the game thread, which asks the user to select a mode to start a new game
      */
     private void reset() {
+        clear();
+        gameThread.execute(this);
+    }
+
+    /* Clears the table, the count of turns and the winner of the game that ended, so the next game starts from nothing
+     * The desktop game clears it between games (see reset()), a headless game is started again after it
+     */
+    void clear() {
         drawPile.removeCards();
         discardPile.removeCards();
         direction = Direction.CW;
-        run();
+        turns = 0;
+        winner = -1;
     }
 
-    //Resumes the execution of this thread and creates a new instance of the countDownLatch, because it is not reusable
-    void countDown() {
-        countDownLatch.countDown();
-        countDownLatch = new CountDownLatch(1);
+    //Generates a random turn
+    private void randomTurn() {
+        currentTurn = random.nextInt(players.length);
     }
 
-    //Sleeps the thread until the countDown() method is called
-    void sleepThread() {
-        try {
-            countDownLatch.await();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+    /* Creates the game's generator from the seed and splits off the deck's stream
+     * The first turn is drawn from the game's generator and each player is given a stream split from it
+     */
+    private void initRandom() {
+        initRandom(seed);
     }
 
-    //Generates a random turn
-    private void randomTurn() {
-        Random r = new Random();
-        currentTurn = r.nextInt(players.length);
+    private void initRandom(long streamSeed) {
+        this.streamSeed = streamSeed;
+        random = new SplittableRandom(streamSeed);
+        deckRandom = random.split();
     }
 
+    /* Restarts the game's random streams from a seed drawn from its generator, see reseed(long)
+     * The desktop game reseeds before each checkpoint, which saves the new seed in the snapshot
+     */
+    void reseed() {
+        reseed(random.nextLong());
+    }
 
-    //This method is only used during the start of the game or after the draw pile is depleted during game-play
+    /* Restarts the game's generator from the given seed, and splits the deck's stream and each player's stream from
+     * it again, like a game that starts
+     * A game restored from a snapshot is reseeded from the snapshot's seed, so it draws the same random numbers
+     * (reshuffles and CPU moves) that the saved game draws after the snapshot
+     */
+    void reseed(long streamSeed) {
+        initRandom(streamSeed);
+        for(Player player : players) {
+            player.reseed(random.split());
+        }
+    }
+
+
+    /* Applies the effects of the card flipped to start the discard pile to the player who has the current turn
+     * This method is only used during the start of the game or after the draw pile is depleted during game-play
+     */
     private void roundOneCheck() {
         wildDrawFourCheck();
-        wildCheck();
-        gameGUI.startTimer();
-        if(reverseCheck())
-            if(players.length != 2)
-                passTurn();
-        actionCardCheck(currentTurn);
+        int effects = Rules.effects(discardPile.getLast(), players.length);
+        if(Rules.picksColor(effects))
+            pickColor();
+        view.refresh();
+        if(Rules.reverses(effects))
+            switchDirection();
+        int draws = Rules.draws(effects);
+        if(draws != 0)
+            players[currentTurn].getHand().drawCard(draws);
+        passTurns(Rules.flipSteps(effects));
+    }
+
+    /* Applies the effects of the card that was just played (see Rules) and passes the turn
+     * The player picks a color for a wild card, the next player draws for a draw card and is skipped with a skip card
+     * A reverse card switches the direction of play, or skips the next player if there are two players
+     */
+    private void resolvePlay() {
+        int effects = Rules.effects(discardPile.getLast(), players.length);
+        if(Rules.picksColor(effects))
+            pickColor();
+        if(Rules.reverses(effects))
+            switchDirection();
+        int draws = Rules.draws(effects);
+        if(draws != 0)
+            players[getNextTurn()].getHand().drawCard(draws);
+        passTurns(Rules.playSteps(effects));
     }
 
     /* Checks if the top card in the discard pile is a wild draw four card
@@ -142,59 +441,25 @@ public class Game implements Runnable {
      * newly created discard pile is not a wild draw four card as well.
      */
     private void wildDrawFourCheck() {
-        Card discard = discardPile.getLast();
-        if(discard.getCardAction().equals(CardAction.DRAW4)) {
+        int discard = discardPile.getLast();
+        if(Card.getCardAction(discard).equals(CardAction.DRAW4)) {
             discard = discardPile.draw();
             drawPile.addCard(discard);
-            drawPile.shuffleCards();
-            discardPile.createDeck();
+            drawPile.shuffleCards(deckRandom);
+            if(log != null)
+                log.reshuffle(drawPile);
+            initDiscardPile();
             wildDrawFourCheck();
         }
     }
 
-    /* Checks the discard pile for a reverse card
-     * if there are two players, the reverse card acts as a skip card (based on UNO rules)
-     * if there are more than 2 players, reverse switches the direction of play
-     */
-    private boolean reverseCheck() {
-        Card discard = discardPile.getLast();
-        CardAction action = discard.getCardAction();
-        if(action.equals(CardAction.REVERSE)) {
-            if(players.length == 2)
-                passTurn();
-            else
-                switchDirection();
-            return true;
+    //The current player chooses a color for the wild card on top of the discard pile, unless they have no cards left
+    private void pickColor() {
+        if(players[currentTurn].getHand().getLength() != 0) {
+            players[currentTurn].pickColor();
+            if(log != null)
+                log.color(currentTurn, discardPile.getWildColor());
         }
-        return false;
-    }
-
-    /* Checks for actions card
-     * In a game of UNO, action cards include the reverse card and exclude the Wild draw four card
-     * In this method, the the grouping and labeling of action cards was based on the way they are dealt with
-     * Draw 2, Draw 4, and Skip all have a thing in common, which is the skipping of the next player's turn
-     */
-    private void actionCardCheck(int playerIndex) {
-        Card discard = discardPile.getLast();
-        Hand hand = players[playerIndex].getHand();
-        CardAction cardAction = discard.getCardAction();
-        if(cardAction.equals(CardAction.DRAW2))
-            hand.drawCard(2);
-        else if(cardAction.equals(CardAction.DRAW4))
-            hand.drawCard(4);
-        else if(!cardAction.equals(CardAction.SKIP))
-            return;
-        passTurn();
-    }
-
-    /* Checks if a card is wild
-     * The current player chooses a color to continue play
-     */
-    private void wildCheck() {
-        Card discard = discardPile.getLast();
-        if(players[currentTurn].getHand().getLength() != 0)
-            if(discard.getCardColor().equals(CardColor.WILD))
-                players[currentTurn].pickColor();
     }
 
     /* Checks if the draw pile is depleted
@@ -204,8 +469,10 @@ public class Game implements Runnable {
     private void checkDrawPile() {
         if(drawPile.getLength() == 0) {
             discardPile.returnCards();
-            drawPile.shuffleCards();
-            discardPile.createDeck();
+            drawPile.shuffleCards(deckRandom);
+            if(log != null)
+                log.reshuffle(drawPile);
+            initDiscardPile();
             roundOneCheck();
         }
     }
@@ -213,11 +480,10 @@ public class Game implements Runnable {
     /* Checks if the player won
      * Setting running to false stops the game loop
      */
-    private void checkWinner(Player player) {
-        if(player.getHand().getLength() == 0) {
+    private void checkWinner(int playerIndex) {
+        if(players[playerIndex].getHand().getLength() == 0) {
             running = false;
-            welcomeScreen.setModeSelected(false);
-            reset();
+            winner = playerIndex;
         }
     }
 
@@ -242,6 +508,13 @@ public class Game implements Runnable {
         return nextTurn;
     }
 
+    //Passes the turn the given number of times
+    private void passTurns(int steps) {
+        for(int i = 0; i < steps; i++) {
+            passTurn();
+        }
+    }
+
     // Passes the turn based on the current direction
     private void passTurn() {
         if(direction == Direction.CW)
@@ -276,6 +549,8 @@ public class Game implements Runnable {
             direction = Direction.CCW;
         else
             direction = Direction.CW;
+        if(log != null)
+            log.direction(direction);
     }
 
     //Initializes the player array
@@ -283,29 +558,32 @@ public class Game implements Runnable {
         players = new Player[size];
     }
 
+    //Creates empty piles that hold the cards of the given number of decks
+    private void initPiles(int decks) {
+        drawPile = new DrawPile(decks);
+        discardPile = new DiscardPile(drawPile);
+    }
+
     //Creates and shuffles all cards in the game
     private void initDrawPile() {
         drawPile.createDeck();
-        drawPile.shuffleCards();
+        drawPile.shuffleCards(deckRandom);
     }
 
     //Creates the discard pile
     private void initDiscardPile() {
         discardPile.createDeck();
+        if(log != null)
+            log.flip(discardPile.getLast());
     }
 
-    //Initializes the game with two hands corresponding to two players
-    private void initTwoHands(Hand[] hands) {
-        hands[0] = new Hand(drawPile, discardPile, gameGUI,7, 0, 1, 2);
-        hands[1] = new Hand(drawPile, discardPile, gameGUI,7, 180, 1, 0);
-    }
-
-    //Initializes the game with four hands corresponding to four players
-    private void initFourHands(Hand[] hands) {
-        hands[0] = new Hand(drawPile, discardPile, gameGUI,7, 0, 1, 2);
-        hands[1] = new Hand(drawPile, discardPile, gameGUI,3, 90, 0, 1);
-        hands[2] = new Hand(drawPile, discardPile, gameGUI,7, 180, 1, 0);
-        hands[3] = new Hand(drawPile, discardPile, gameGUI,3, 270, 2, 1);
+    //Creates one hand for each player, hands are displayed by the GUI's hand views
+    private Hand[] initHands() {
+        Hand[] hands = new Hand[players.length];
+        for(int i = 0; i < hands.length; i++) {
+            hands[i] = new Hand(drawPile, discardPile, view, log, i);
+        }
+        return hands;
     }
 
     //Adds cards for each hand
@@ -322,7 +600,10 @@ public class Game implements Runnable {
     private void initPlayers(Hand[] hands) {
         players[0] = new HumanPlayer(hands[0], discardPile, drawPile,this, gameGUI, colorSelector);
         for(int i = 1; i < players.length; i++) {
-            players[i] = new CPUPlayer(hands[i], discardPile);
+            players[i] = bot.create(hands[i], discardPile, random.split());
+        }
+        for(int i = 0; i < players.length; i++) {
+            players[i].seat(this, i);
         }
     }
 
@@ -350,15 +631,60 @@ public class Game implements Runnable {
         return currentTurn;
     }
 
-    //Pauses the thread until a mode is selected
+    int getWinner() {
+        return winner;
+    }
+
+    int getTurns() {
+        return turns;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    long getStreamSeed() {
+        return streamSeed;
+    }
+
+    ActionInbox getInbox() {
+        return inbox;
+    }
+
+    //Records every action of the following games in the log, must be set before the game starts
+    void setLog(GameLog log) {
+        this.log = log;
+    }
+
+    //Number of turns already played by a restored game
+    void setTurns(int turns) {
+        this.turns = turns;
+    }
+
+    //Sets up the desktop game's table for the given number of players and decks, with the game's seed
+    void initTable(int playerCount, int decks, long seed) {
+        checkPlayers(playerCount);
+        initPlayerSize(playerCount);
+        if(drawPile.getDecks() != decks)
+            initPiles(decks);
+        this.seed = seed;
+    }
+
+    //Pauses the thread until a mode is selected on the welcome screen, the mode sets the number of players
     private void waitOnModeSelection() {
-        while(welcomeScreen == null || !welcomeScreen.isModeSelected()) {
+        inbox.accept(ActionType.MODE);
+        PlayerAction action = null;
+        while(action == null) {
             try {
-                countDownLatch.await();
+                action = inbox.take();
             }
             catch(InterruptedException e) {
                 e.printStackTrace();
             }
         }
+        inbox.accept();
+        initPlayerSize(action.getPlayers());
+        if(drawPile.getDecks() != decksFor(players.length))
+            initPiles(decksFor(players.length));
     }
 }
\ No newline at end of file
@@ -1,41 +1,168 @@
 /* GameAudio.java
  * Plays sound effects for the game
  * Static variables CARD_PLAY and CARD_DRAW are addresses to files located in this project's resources folder
+ * Every sound effect is decoded once by start(), sounds are then mixed and written to a single audio line by a
+ * dedicated thread, so playing a sound never blocks the caller and overlapping sounds are heard together
+ * The time taken to decode each effect and the delay between play() and the mixer picking the sound up are recorded
+ * in Metrics
  */
 
 package uno;
 
+import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
+import javax.sound.sampled.SourceDataLine;
 import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 public class GameAudio {
 
-    //Constants for each audio in the game, any new audio file can be added here if needed
+    //Constants for each audio in the game, any new audio file can be added here and to EFFECTS if needed
     public static final String CARD_PLAY = "/audio/Cardplace1.wav";
     public static final String CARD_DRAW = "/audio/Cardslide1.wav";
-    public static final String SILENT = "/audio/Silent.wav";
+    private static final String[] EFFECTS = {CARD_PLAY, CARD_DRAW};
 
-    private static Clip clip;
+    //Format of the line that sounds are mixed into, sound effects are converted to this format when decoded
+    private static final AudioFormat FORMAT = new AudioFormat(44100, 16, 2, true, false);
+    private static final int BUFFER_FRAMES = 512;       //frames mixed at a time, about 12 milliseconds
+    private static final int MAX_VOICES = 16;           //maximum number of sounds playing at the same time
 
-    /* Loads the audio input stream with an audio file in the resources folder
+    private static final Map<String, short[]> sounds = new HashMap<>();     //decoded samples of each effect
+    private static final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+    private static volatile boolean started;            //true once the audio thread is running
+
+    /* Decodes every sound effect and starts the audio thread, called once when the program starts
+     * If there is no audio line available, the game runs without sound
+     */
+    public static synchronized void start() {
+        if(started)
+            return;
+        try {
+            for(String effect : EFFECTS) {
+                long start = System.nanoTime();
+                sounds.put(effect, decode(effect));
+                Metrics.AUDIO_LOAD.recordSince(start);
+            }
+            SourceDataLine line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, BUFFER_FRAMES * FORMAT.getFrameSize() * 4);
+            line.start();
+            Thread thread = new Thread(() -> mix(line), "GameAudio");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MAX_PRIORITY);
+            thread.start();
+            started = true;
+        } catch(Exception e) {
+            System.err.println("Audio is disabled: " + e);
+        }
+    }
+
+    /* Plays a sound effect, the sound is handed to the audio thread and this method returns immediately
      * NOTE: The string parameter takes in a path to a file located in the resources folder
      */
-    public static void play() {
-        clip.start();
+    public static void play(String resource) {
+        if(started) {
+            short[] samples = sounds.get(resource);
+            if(samples != null)
+                requests.offer(new Request(samples));
+        }
     }
 
-    public static void load(String resource) {
-        InputStream inputStream = new BufferedInputStream(GameAudio.class.getResourceAsStream(resource));
-        AudioInputStream audioInputStream;
+    //A sound handed to the audio thread, with the time it was requested
+    private static final class Request {
+
+        final short[] samples;
+        final long time;                //System.nanoTime() when play() was called
+
+        Request(short[] samples) {
+            this.samples = samples;
+            time = System.nanoTime();
+        }
+    }
+
+    /* Audio thread loop, adds the samples of every playing sound together and writes them to the line
+     * The thread waits on the request queue while no sound is playing
+     */
+    private static void mix(SourceDataLine line) {
+        short[][] voices = new short[MAX_VOICES][];     //samples of each playing sound
+        int[] positions = new int[MAX_VOICES];          //next sample of each playing sound
+        int voiceCount = 0;
+        int[] mixed = new int[BUFFER_FRAMES * FORMAT.getChannels()];
+        byte[] buffer = new byte[mixed.length * 2];
         try {
-            audioInputStream = AudioSystem.getAudioInputStream(inputStream);
-            clip = AudioSystem.getClip();
-            clip.open(audioInputStream);
-        } catch(Exception e) {
-            e.printStackTrace();
+            while(true) {
+                Request request = voiceCount == 0 ? requests.take() : requests.poll();
+                while(request != null) {
+                    Metrics.AUDIO_PLAY.recordSince(request.time);
+                    if(voiceCount < MAX_VOICES) {
+                        voices[voiceCount] = request.samples;
+                        positions[voiceCount] = 0;
+                        voiceCount++;
+                    }
+                    request = requests.poll();
+                }
+                Arrays.fill(mixed, 0);
+                for(int v = 0; v < voiceCount; v++) {
+                    int count = Math.min(mixed.length, voices[v].length - positions[v]);
+                    for(int i = 0; i < count; i++) {
+                        mixed[i] += voices[v][positions[v] + i];
+                    }
+                    positions[v] += count;
+                    if(positions[v] == voices[v].length) {  //sound is over, the last voice takes its place
+                        voiceCount--;
+                        voices[v] = voices[voiceCount];
+                        positions[v] = positions[voiceCount];
+                        voices[voiceCount] = null;
+                        v--;
+                    }
+                }
+                for(int i = 0; i < mixed.length; i++) {
+                    int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mixed[i]));
+                    buffer[2 * i] = (byte) sample;
+                    buffer[2 * i + 1] = (byte) (sample >> 8);
+                }
+                line.write(buffer, 0, buffer.length);
+            }
+        } catch(InterruptedException e) {
+            line.close();
+        }
+    }
+
+    /* Decodes a sound effect into 16 bit stereo samples
+     * Mono sounds are converted to stereo, the sample rate must match the line's sample rate
+     */
+    private static short[] decode(String resource) throws Exception {
+        InputStream inputStream = new BufferedInputStream(GameAudio.class.getResourceAsStream(resource));
+        AudioInputStream source = AudioSystem.getAudioInputStream(inputStream);
+        AudioFormat format = source.getFormat();
+        if(format.getSampleRate() != FORMAT.getSampleRate())
+            throw new IllegalArgumentException(resource + " must have a sample rate of " + FORMAT.getSampleRate());
+        int channels = format.getChannels();
+        AudioFormat pcm = new AudioFormat(format.getSampleRate(), 16, channels, true, false);
+        byte[] bytes;
+        try(AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(pcm, source)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[8192];
+            int read;
+            while((read = audioInputStream.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            bytes = out.toByteArray();
+        }
+        int frames = bytes.length / (2 * channels);
+        short[] samples = new short[frames * 2];
+        for(int frame = 0; frame < frames; frame++) {
+            for(int channel = 0; channel < 2; channel++) {
+                int index = 2 * (frame * channels + Math.min(channel, channels - 1));
+                samples[frame * 2 + channel] = (short) ((bytes[index] & 0xff) | (bytes[index + 1] << 8));
+            }
         }
+        return samples;
     }
-}
\ No newline at end of file
+}
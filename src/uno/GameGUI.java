@@ -1,29 +1,49 @@
 /* GameGUI.java
  * Handles the game's GUI
  * This class MUST run on the Event Dispatch Thread to work properly
- * All GUI components for this game are removed from their containers and then replaced with new components that
- * correspond to the current game's state every time the timer is started
+ * The GUI components of a game are built once when the game starts
+ * Renders are requested from any thread through a RenderScheduler, which merges them into at most one render per
+ * frame. On every render, the game's state is compared to the last rendered state and only the components that
+ * changed (a hand, the top of a pile, the turn label, the direction icon) are updated
+ * With -canvas, the table is painted on a single TableCanvas instead, and rendering repaints it
+ * The layout and painting of every frame are timed (Metrics.LAYOUT and Metrics.PAINT) to compare the two renderers
  */
 
 package uno;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.function.IntConsumer;
 
-public class GameGUI extends JFrame implements ActionListener, KeyListener {
+public class GameGUI extends JFrame implements KeyListener, GameView {
+
+    //Icons of the directions of play
+    static final String CLOCKWISE = "/images/other/Clockwise symbol small.png";
+    static final String COUNTER_CLOCKWISE = "/images/other/Counter-Clockwise symbol small.png";
 
     private Game game;
     private WelcomeScreen welcomeScreen;
     private ImageIcon clockWise;            //icon used to show direction of play is clockwise
     private ImageIcon counterClockWise;     //icon used to show direction of play is counter-clockwise
     private JButton pass;                   //used by the human player to pass turn
-    private Timer timer;                    //used to fire action events
+    private CardButton[] cardButtons;       //button of each card, indexed by card id
+    private HandView[] handViews;           //view of each player's hand, indexed like the players array
+    private JLabel turnLabel;               //shows the game's current turn
+    private JLabel directionLabel;          //shows the game's current direction of play
+    private JPanel discardPanel;            //contains the top card of the discard pile
+    private JPanel drawPanel;               //contains the top card of the draw pile
+    private int renderedTurn;               //turn shown by turnLabel
+    private Direction renderedDirection;    //direction shown by directionLabel
+    private int renderedDiscard;            //card shown in discardPanel, -1 if none
+    private CardColor renderedWildColor;    //picked wild color shown by the card in discardPanel
+    private int renderedDraw;               //card shown in drawPanel, -1 if none
+    private RenderScheduler renderScheduler;    //merges the render requests into frames
+    private TableCanvas canvas;             //paints the whole table when the canvas renderer is used, null if not
 
-    GameGUI(Game game, WelcomeScreen welcomeScreen) {
+    GameGUI(Game game, WelcomeScreen welcomeScreen, boolean canvas, int maxFps) {
+        RepaintManager.setCurrentManager(new TimedRepaintManager());
         setTitle("UNO");
         setLayout(new GridBagLayout());
         setExtendedState(JFrame.MAXIMIZED_BOTH);            //sets the frame's extended state to maximum size
@@ -33,35 +53,74 @@ public class GameGUI extends JFrame implements ActionListener, KeyListener {
         addKeyListener(this);
         this.game = game;
         this.welcomeScreen = welcomeScreen;
-        clockWise = new ImageIcon(ImageProcessor.loadImage("/images/other/Clockwise symbol small.png"));
-        counterClockWise = new ImageIcon(ImageProcessor.loadImage("/images/other/" +
-                "Counter-Clockwise symbol small.png"));
+        clockWise = new ImageIcon(ImageProcessor.loadImage(CLOCKWISE));
+        counterClockWise = new ImageIcon(ImageProcessor.loadImage(COUNTER_CLOCKWISE));
         pass = new JButton("Pass");
         pass.setFocusable(false);                  //pass button cannot gain focus
-        timer = new Timer(1, this);  //timer fires action events every 1 millisecond when started
+        cardButtons = new CardButton[Card.DECK_SIZE];
+        for(int card = 0; card < cardButtons.length; card++) {
+            cardButtons[card] = new CardButton(card);
+        }
+        renderScheduler = new RenderScheduler(this::render, maxFps);
+        Metrics.register(renderScheduler);
+        if(canvas)
+            this.canvas = new TableCanvas(game, pass);
     }
 
-    /* When timer is called, JFrame is re-rendered
-     * After the call, the timer is stopped because there is no need to redisplay components more than once per call
+    /* Asks for the screen to be re-rendered, may be called from any thread
+     * Requests made before the next frame are merged into it (see RenderScheduler)
      */
+    void requestRender() {
+        renderScheduler.request();
+    }
+
     @Override
-    public void actionPerformed(ActionEvent e) {
-        if(e.getSource() == timer) {
-            render();
-            timer.stop();
-        }
+    public void refresh() {
+        requestRender();
     }
 
-    //Timer starts firing action events
-    void startTimer() {
-        timer.start();
+    @Override
+    public void cardPlayed() {
+        GameAudio.play(GameAudio.CARD_PLAY);
     }
 
-    /* Displays all visual game components on the screen(cards, player labels, current turn, direction of play, etc...)
-     * This method is called at least once every time the turn is passed
+    //Plays the card draw sound and re-renders screen contents to show that a player drew card(s)
+    @Override
+    public void cardDrawn() {
+        GameAudio.play(GameAudio.CARD_DRAW);
+        requestRender();
+    }
+
+    /* Updates the visual game components on the screen(cards, player labels, current turn, direction of play, etc...)
+     * that changed since the last call
+     * This method is called by the render scheduler, at least once every time the turn is passed
      */
     private void render() {
-        getContentPane().removeAll();       //removes all components from frame
+        long start = System.nanoTime();
+        if(canvas != null)
+            canvas.repaint();
+        else {
+            renderTurnLabel();
+            renderDiscardPile();
+            renderDrawPile();
+            renderDirectionLabel();
+            renderHands();
+        }
+        Metrics.RENDER.recordSince(start);      //the winner dialog waits on the user, it is not timed
+        if(isShowing())
+            Startup.turnShown();
+        checkWinner();
+    }
+
+    /* Builds the components of a new game, must be called before the game is displayed
+     * Creates a view for each player's hand, the bottom hand (index 0) belongs to the human player
+     */
+    void initGameView(Player[] players) {
+        getContentPane().removeAll();       //removes all components of the previous game from frame
+        if(canvas != null) {
+            initCanvas(players);
+            return;
+        }
         JPanel middlePanel = new JPanel();  //contains the draw pile, discard pile, turn & direction label, pass button
         middlePanel.setLayout(new BoxLayout(middlePanel, BoxLayout.PAGE_AXIS));
         GridBagConstraints c = new GridBagConstraints();
@@ -70,78 +129,181 @@ public class GameGUI extends JFrame implements ActionListener, KeyListener {
         c.insets = new Insets(25, 0, 25, 0);  //spacing between middlePanel and other components
         add(middlePanel, c);
 
-        turnLabel(middlePanel);
+        JPanel turnPanel = new JPanel();
+        turnLabel = new JLabel();
+        turnPanel.add(turnLabel);
+        middlePanel.add(turnPanel);
 
         JPanel discardDrawPanel = new JPanel();
+        discardPanel = new JPanel();
+        drawPanel = new JPanel();
+        discardDrawPanel.add(discardPanel);
+        discardDrawPanel.add(drawPanel);
         middlePanel.add(discardDrawPanel);
-        displayDiscardPile(discardDrawPanel);
-        displayDrawPile(discardDrawPanel);
-        passButton(middlePanel);
-        directionLabel(middlePanel);
-        displayHands();
-        displayPlayersInfo();
+
+        JPanel passPanel = new JPanel();
+        passPanel.add(pass);
+        middlePanel.add(passPanel);
+
+        JPanel labelPanel = new JPanel();
+        directionLabel = new JLabel();
+        directionLabel.setHorizontalAlignment(JLabel.CENTER);
+        labelPanel.add(directionLabel);
+        middlePanel.add(labelPanel);
+
+        initCardButtons(game.getDrawPile().getDecks() * Card.DECK_SIZE);
+        initHandViews(players);
+        renderedTurn = -1;
+        renderedDirection = null;
+        renderedDiscard = -1;
+        renderedWildColor = null;
+        renderedDraw = -1;
         revalidate();
         repaint();
-        checkWinner();
+    }
+
+    //Fills the frame with the table canvas, which paints every hand, both piles and the labels itself
+    private void initCanvas(Player[] players) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.fill = GridBagConstraints.BOTH;
+        c.weightx = 1;
+        c.weighty = 1;
+        add(canvas, c);
+        canvas.initGame(players);
+        revalidate();
+        repaint();
+    }
+
+    //Creates the buttons of the cards that the buttons of earlier games don't cover, for games with more decks
+    private void initCardButtons(int cards) {
+        if(cardButtons.length >= cards)
+            return;
+        CardButton[] buttons = new CardButton[cards];
+        System.arraycopy(cardButtons, 0, buttons, 0, cardButtons.length);
+        for(int card = cardButtons.length; card < cards; card++) {
+            buttons[card] = new CardButton(card);
+        }
+        cardButtons = buttons;
+    }
+
+    /* Creates a view for each player's hand, players are seated clockwise from the user at the bottom: up the left
+     * side, along the top from left to right, then down the right side
+     * Two players face each other, the opponents of larger tables are shared between the sides and the top, and the
+     * more hands share a side, the fewer cards each of them shows (the number of cards is always shown)
+     */
+    private void initHandViews(Player[] players) {
+        handViews = seatHands(getContentPane(), players);
+    }
+
+    /* Adds the views of the players' hands to a container laid out by a GridBagLayout, the middle cell (1, 1) is left
+     * for the piles. Returns the views, indexed like the players array
+     */
+    static HandView[] seatHands(Container table, Player[] players) {
+        HandView[] handViews = new HandView[players.length];
+        handViews[0] = new HandView(players[0].getHand(), 1, 7, 0);
+        table.add(handViews[0], cell(1, 2));
+        int opponents = players.length - 1;
+        int side = opponents / 3;                   //opponents on each side, the others are at the top
+        int seat = seatGroup(table, handViews, players, 1, side, 90, 3, 0);
+        seat = seatGroup(table, handViews, players, seat, opponents - 2 * side, 180, 7, 1);
+        seatGroup(table, handViews, players, seat, side, 270, 3, 2);
+        return handViews;
+    }
+
+    /* Seats count players from the given seat on one side of the table, each hand showing at most maxCards / count
+     * cards, and returns the next seat. gridx is the side's column, the sides are in the middle row and the top in the
+     * first one
+     */
+    private static int seatGroup(Container table, HandView[] handViews, Player[] players, int seat, int count,
+                                 int displayAngle, int maxCards, int gridx) {
+        if(count == 0)
+            return seat;
+        JPanel group = new JPanel();
+        group.setLayout(new BoxLayout(group, displayAngle == 180 ? BoxLayout.LINE_AXIS : BoxLayout.PAGE_AXIS));
+        for(int i = 0; i < count; i++, seat++) {
+            handViews[seat] = new HandView(players[seat].getHand(), seat + 1, Math.max(1, maxCards / count),
+                    displayAngle);
+            group.add(handViews[seat], displayAngle == 90 ? 0 : -1);   //the left side is seated from the bottom up
+        }
+        table.add(group, cell(gridx, displayAngle == 180 ? 0 : 1));
+        return seat;
+    }
+
+    private static GridBagConstraints cell(int gridx, int gridy) {
+        GridBagConstraints c = new GridBagConstraints();
+        c.gridx = gridx;
+        c.gridy = gridy;
+        return c;
     }
 
     //Display's the game's current direction of play
-    private void directionLabel(JPanel panel) {
-        JPanel labelPanel = new JPanel();
-        JLabel directionLabel = new JLabel();
-        if(game.getDirection().equals(Direction.CW))
+    private void renderDirectionLabel() {
+        Direction direction = game.getDirection();
+        if(direction == renderedDirection)
+            return;
+        if(direction.equals(Direction.CW))
             directionLabel.setIcon(clockWise);
         else
             directionLabel.setIcon(counterClockWise);
-        directionLabel.setHorizontalAlignment(JLabel.CENTER);
-        labelPanel.add(directionLabel);
-        panel.add(labelPanel);
+        renderedDirection = direction;
     }
 
     //Displays the game's current turn
-    private void turnLabel(JPanel panel) {
-        JPanel turnPanel = new JPanel();
+    private void renderTurnLabel() {
         int currentTurn = game.getCurrentTurn();
-        JLabel turnLabel = new JLabel("Player " + (currentTurn + 1) + "'s " + "turn");
-        turnPanel.add(turnLabel);
-        panel.add(turnPanel);
+        if(currentTurn == renderedTurn)
+            return;
+        turnLabel.setText("Player " + (currentTurn + 1) + "'s " + "turn");
+        renderedTurn = currentTurn;
     }
 
     //Displays the top card of the draw pile
-    private void displayDrawPile(JPanel panel) {
-        DrawPile drawPile = game.getDrawPile();
-        drawPile.renderCards(panel);
+    private void renderDrawPile() {
+        int last = game.getDrawPile().getLast();
+        if(last == renderedDraw && isShownIn(last, drawPanel))
+            return;
+        showCard(drawPanel, last, false, CardColor.WILD);
+        renderedDraw = last;
     }
 
-    //Displays the top card of the discard pile
-    private void displayDiscardPile(JPanel panel) {
+    //Displays the top card of the discard pile, wild cards show the color that was picked
+    private void renderDiscardPile() {
         DiscardPile discardPile = game.getDiscardPile();
-        discardPile.renderCards(panel);
+        int last = discardPile.getLast();
+        CardColor wildColor = discardPile.getWildColor();
+        if(last == renderedDiscard && wildColor == renderedWildColor && isShownIn(last, discardPanel))
+            return;
+        showCard(discardPanel, last, true, wildColor);
+        renderedDiscard = last;
+        renderedWildColor = wildColor;
     }
 
-    //Displays the pass button
-    private void passButton(JPanel panel) {
-        JPanel passPanel = new JPanel();
-        passPanel.add(pass);
-        panel.add(passPanel);
+    /* Checks if a pile's panel still shows a card (-1 meaning an empty pile)
+     * Buttons move between panels as cards are drawn and played, so the button's parent must be checked
+     */
+    private boolean isShownIn(int card, JPanel panel) {
+        if(card == -1)
+            return panel.getComponentCount() == 0;
+        return cardButtons[card].getParent() == panel && panel.getComponentCount() == 1;
     }
 
-    //Displays all hands in the game
-    private void displayHands() {
-        Player[] players = game.getPlayers();
-        for(Player player : players) {
-            Hand hand = player.getHand();
-            hand.addToFrame(this);
-            hand.displayCards(!player.isAI());
+    //Replaces the card shown in a pile's panel, nothing is shown if the pile is empty (card is -1)
+    private void showCard(JPanel panel, int card, boolean front, CardColor wildColor) {
+        panel.removeAll();
+        if(card != -1) {
+            CardButton cardButton = cardButtons[card];
+            cardButton.setCardIcon(front, 0, wildColor);
+            panel.add(cardButton);
         }
+        panel.revalidate();
+        panel.repaint();
     }
 
-    //Displays every player's info (number of cards and player label)
-    private void displayPlayersInfo() {
+    //Displays all hands in the game, only hands that changed are updated
+    private void renderHands() {
         Player[] players = game.getPlayers();
         for(int i = 0; i < players.length; i++) {
-            Hand hand = players[i].getHand();
-            hand.displayInfo(i+1);
+            handViews[i].render(!players[i].isAI(), cardButtons);
         }
     }
 
@@ -175,6 +337,32 @@ public class GameGUI extends JFrame implements ActionListener, KeyListener {
         return pass;
     }
 
+    CardButton[] getCardButtons() {
+        return cardButtons;
+    }
+
+    //Sets the listener of the cards clicked on the table canvas, the buttons of the cards are not shown with a canvas
+    void setCardListener(IntConsumer cardListener) {
+        if(canvas != null)
+            canvas.setCardListener(cardListener);
+    }
+
+    //Shows the user's hand from one card further left, the arrow keys scroll it the same way
+    void decreaseStartIndex() {
+        if(canvas != null)
+            canvas.decreaseStartIndex();
+        else
+            handViews[0].decreaseStartIndex();
+    }
+
+    //Shows the user's hand from one card further right
+    void increaseStartIndex() {
+        if(canvas != null)
+            canvas.increaseStartIndex();
+        else
+            handViews[0].increaseStartIndex();
+    }
+
     //Unused methods
     @Override
     public void keyTyped(KeyEvent e) {}
@@ -183,14 +371,31 @@ public class GameGUI extends JFrame implements ActionListener, KeyListener {
 
     @Override
     public void keyReleased(KeyEvent e) {
-        Player[] players = game.getPlayers();
-        Player player = players[0];
-        Hand hand = player.getHand();
         if(e.getKeyCode() == KeyEvent.VK_LEFT) {
-            hand.decreaseStartIndex();
+            decreaseStartIndex();
         } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
-            hand.increaseStartIndex();
+            increaseStartIndex();
+        }
+        requestRender();
+    }
+
+    /* Times the layout of the invalid components and the painting of the dirty regions of every frame, whichever
+     * renderer is used, the timing includes the dialogs and the welcome screen
+     */
+    private static class TimedRepaintManager extends RepaintManager {
+
+        @Override
+        public void validateInvalidComponents() {
+            long start = System.nanoTime();
+            super.validateInvalidComponents();
+            Metrics.LAYOUT.recordSince(start);
+        }
+
+        @Override
+        public void paintDirtyRegions() {
+            long start = System.nanoTime();
+            super.paintDirtyRegions();
+            Metrics.PAINT.recordSince(start);
         }
-        render();
     }
 }
\ No newline at end of file
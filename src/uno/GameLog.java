@@ -0,0 +1,192 @@
+/* GameLog.java
+ * Records every action of a game as compact binary records, appended to a memory-mapped file
+ * The file starts with a header of HEADER_SIZE bytes, the position after the last record written when a game ended
+ * or the log was closed, so opening a log only reads the records that follow it
+ * Records are 4-byte aligned, most of them are a single int: type (8 bits), player (8 bits) and either a card or a
+ * value (16 bits, card ids of games with several decks go past 255). START and RESHUFFLE records are followed by the
+ * order of the draw pile, 2 bytes per card. RESUME records are followed by the length of a snapshot (see GameSnapshot)
+ * and the snapshot, padded to a multiple of 4 bytes
+ * Turns have no record of their own, the type of the first record of a turn is flagged with TURN
+ * A log holds any number of games, one after the other, each one starting with a START record, a game restored from
+ * a snapshot goes on after a RESUME record
+ * The deal is not recorded: the hands are dealt 7 cards each from the top of the START record's draw pile, in order
+ * Records are written straight into the mapped region of the file as they happen, with no buffer in between, so the
+ * records of a game in progress are in the file (the OS writes them to the disk) even if the process dies
+ * Writing to a page of the mapping for the first time faults, which costs more than the records on the page, so the
+ * next chunk of the file is mapped and its pages are touched on another thread while records go to the current one
+ * The file is not cut after the last record when the log is closed, since a mapped file can't be truncated on every
+ * platform: the rest of the last chunk stays zeros, and the header says where the records end
+ * Logged games are rebuilt by GameReplay
+ */
+
+package uno;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+public class GameLog implements Closeable {
+
+    //Record types, 0 marks the end of the records (the rest of the mapped file is zeros)
+    static final int START = 1;         //player = number of players, value = decks, followed by the seed and draw pile
+    static final int DRAW = 2;          //player drew card from the draw pile
+    static final int FLIP = 3;          //card was moved from the draw pile to start the discard pile
+    static final int PLAY = 5;          //player placed card on the discard pile
+    static final int PASS = 6;          //player ended the turn without playing
+    static final int COLOR = 7;         //player picked the color value (CardColor ordinal) for the wild card
+    static final int DIRECTION = 8;     //direction of play is now value (Direction ordinal)
+    static final int RESHUFFLE = 9;     //discard pile was emptied into the draw pile, followed by the draw pile
+    static final int END = 10;          //game ended, player is the winner or NO_PLAYER if nobody won
+    static final int RESUME = 11;       //game was restored, player = number of players, followed by its GameSnapshot
+    static final int TURN = 0x80;       //set in the type of the first record of a turn (a DRAW, PLAY or PASS)
+
+    static final int NO_PLAYER = 0xff;
+    static final int HEADER_SIZE = 8;   //the position after the last record, see GameReplay.findEnd()
+    private static final int CHUNK_SIZE = 1 << 20;  //the file is mapped and grown one megabyte at a time
+    private static final int OVERLAP = 1 << 12;     //chunks overlap by more than the largest record (a draw pile)
+    private static final int PAGE_SIZE = 1 << 12;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer buffer;    //mapped region of the file that records are written to
+    private long bufferStart;           //position of the mapped region in the file
+    private int position;               //position of the next record in the mapped region
+    private int turn;                   //TURN until the first record of the turn is written, then 0
+    private CompletableFuture<MappedByteBuffer> next;   //chunk that starts OVERLAP bytes before the current one ends
+
+    /* Opens a log file, records are appended after the records already in the file
+     * The file is created if it doesn't exist
+     */
+    GameLog(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        bufferStart = GameReplay.findEnd(channel);
+        buffer = map(bufferStart);
+        prepareNext();
+    }
+
+    //Maps the chunk of the file that starts at the given position
+    private MappedByteBuffer map(long position) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, position, CHUNK_SIZE);
+        } catch(IOException e) {
+            throw new IllegalStateException("Unable to grow the game log", e);
+        }
+    }
+
+    /* Maps the chunk that follows the current one on another thread, and writes a zero in each of its pages past the
+     * overlap, which is past every record written so far, so they don't fault when records reach them
+     */
+    private void prepareNext() {
+        long start = bufferStart + CHUNK_SIZE - OVERLAP;
+        next = CompletableFuture.supplyAsync(() -> {
+            MappedByteBuffer chunk = map(start);
+            for(int i = OVERLAP; i < CHUNK_SIZE; i += PAGE_SIZE) {
+                chunk.put(i, (byte) 0);
+            }
+            return chunk;
+        }, ForkJoinPool.commonPool());
+    }
+
+    //Makes room for a record of the given size, moving on to the next chunk of the file if the current one is full
+    private void ensure(int bytes) {
+        if(position > CHUNK_SIZE - bytes) {
+            buffer = next.join();
+            position -= CHUNK_SIZE - OVERLAP;
+            bufferStart += CHUNK_SIZE - OVERLAP;
+            prepareNext();
+        }
+    }
+
+    //Writes a record, cardOrValue is the card of DRAW, FLIP and PLAY records and the value of the others
+    private void record(int type, int player, int cardOrValue) {
+        ensure(4);
+        buffer.putInt(position, (type | turn) << 24 | (player & 0xff) << 16 | (cardOrValue & 0xffff));
+        position += 4;
+        turn = 0;
+    }
+
+    //Writes the cards of the draw pile, bottom to top, padded to a multiple of 4 bytes (the padding is already zero)
+    private void cards(Deck deck) {
+        int length = deck.getLength();
+        ensure(4 + 2 * length + 2);
+        buffer.putInt(position, length);
+        ((ByteBuffer) buffer.duplicate().position(position + 4)).asShortBuffer().put(deck.cards, 0, length);
+        position += 4 + 2 * length + 2 * (length % 2);
+    }
+
+    void start(int players, long seed, DrawPile drawPile) {
+        record(START, players, drawPile.getDecks());
+        ensure(8);
+        buffer.putLong(position, seed);
+        position += 8;
+        cards(drawPile);
+    }
+
+    //The game was restored from a snapshot, the game's state is written after the record
+    void resume(Game game) {
+        record(RESUME, game.getPlayers().length, 0);
+        ensure(4 + GameSnapshot.MAX_SIZE + 3);
+        ByteBuffer snapshot = (ByteBuffer) buffer.duplicate().position(position + 4);
+        GameSnapshot.write(game, snapshot);
+        int length = snapshot.position() - position - 4;
+        buffer.putInt(position, length);
+        position += 4 + (length + 3 & ~3);
+    }
+
+    void draw(int player, int card) {
+        record(DRAW, player, card);
+    }
+
+    void flip(int card) {
+        record(FLIP, 0, card);
+    }
+
+    //A turn starts, the next record (the player's DRAW, PLAY or PASS) is flagged with TURN
+    void turn() {
+        turn = TURN;
+    }
+
+    void play(int player, int card) {
+        record(PLAY, player, card);
+    }
+
+    void pass(int player) {
+        record(PASS, player, 0);
+    }
+
+    void color(int player, CardColor color) {
+        record(COLOR, player, color.ordinal());
+    }
+
+    void direction(Direction direction) {
+        record(DIRECTION, 0, direction.ordinal());
+    }
+
+    void reshuffle(DrawPile drawPile) {
+        record(RESHUFFLE, 0, 0);
+        cards(drawPile);
+    }
+
+    void end(int winner) {
+        record(END, winner == -1 ? NO_PLAYER : winner, 0);
+        header.putLong(0, bufferStart + position);
+    }
+
+    //Records where the records end in the header and forces the records to the disk
+    @Override
+    public void close() throws IOException {
+        next.join();                    //the next chunk is mapped before the file is closed
+        header.putLong(0, bufferStart + position);
+        buffer.force();
+        header.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,338 @@
+/* GameReplay.java
+ * Rebuilds games from a log written by GameLog, one record at a time
+ * The state of the replayed game (piles, hands, turn, direction, picked color) is kept in the same classes that
+ * the game uses, and every record is checked against it, so a log that doesn't match the rules is detected:
+ * drawn, flipped and played cards must be where the record says they are, turns must follow the order given by the
+ * effects of the cards (see Rules), a player only draws, plays or passes on their turn, at most once each and in that
+ * order, a played card must be playable (only the drawn card once the player drew), colors are picked and the
+ * direction switched only when a card calls for it, and a draw card's penalty is drawn by the player it targets
+ * The first player of a game is drawn at random and not recorded, so the first turn of a game is not checked
+ * A RESUME record restores the game from the snapshot that follows it (see GameSnapshot), then play goes on as usual
+ * Usage: java uno.GameReplay file
+ */
+
+package uno;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class GameReplay {
+
+    private static final int NO_COLOR = -2;
+    private static final PlayerFactory[] SEATS = new PlayerFactory[Game.MAX_PLAYERS];     //players of restored games
+
+    static {
+        Arrays.fill(SEATS, CPUPlayer.FACTORY);
+    }
+
+    private final ByteBuffer buffer;
+    private DrawPile drawPile;
+    private DiscardPile discardPile;
+    private Hand[] hands;
+    private long seed;
+    private int currentTurn;            //player whose turn it is, -1 until the first turn of the game
+    private Direction direction;
+    private int winner;                 //index of the player that won, -1 if nobody won
+    private boolean running;            //true between a game's START and END records
+    private boolean drawn;              //the current player drew a card this turn
+    private boolean acted;              //the current player played a card or passed this turn
+    private int colorPlayer;            //player who must pick a color, -1 if unknown, NO_COLOR if nobody
+    private boolean reversing;          //a card switched the direction, the DIRECTION record is expected
+    private int penaltyPlayer;          //player who draws the penalty of a draw card, -1 if unknown
+    private int penalty;                //cards of the penalty left to draw
+
+    GameReplay(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE)
+                throw new IOException("Logs larger than 2 GB must be split before being replayed");
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.position((int) Math.min(GameLog.HEADER_SIZE, channel.size()));      //records follow the header
+            buffer = mapped;
+        }
+    }
+
+    public static void main(String [] args) throws IOException {
+        if(args.length != 1) {
+            System.out.println("Usage: java uno.GameReplay file");
+            return;
+        }
+        long start = System.nanoTime();
+        GameReplay replay = new GameReplay(Paths.get(args[0]));
+        long records = 0;
+        int games = 0;
+        while(replay.next()) {
+            records++;
+            if(!replay.isRunning())
+                games++;
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Games: %d, records: %d, time: %.3f s, throughput: %.0f records/s%n",
+                games, records, secs, records / secs);
+    }
+
+    /* Applies the next record to the replayed game
+     * Returns false when there are no records left
+     */
+    boolean next() {
+        if(buffer.remaining() < 4)
+            return false;
+        int record = buffer.getInt();
+        int type = record >>> 24;
+        int player = record >>> 16 & 0xff;
+        int card = record & 0xffff;         //card and value share the low 16 bits, records only have one of them
+        int value = card;
+        if(type != 0 && type != GameLog.START && type != GameLog.RESUME) {
+            check(running, "record outside of a game");
+            check(player < hands.length || type == GameLog.END && player == GameLog.NO_PLAYER, "unknown player");
+        }
+        if((type & GameLog.TURN) != 0) {
+            type &= ~GameLog.TURN;
+            check(type == GameLog.DRAW || type == GameLog.PLAY || type == GameLog.PASS,
+                    "turn doesn't start with a draw, a play or a pass");
+            startTurn(player);
+        }
+        switch(type) {
+            case 0:
+                buffer.position(buffer.position() - 4);
+                return false;
+            case GameLog.START:
+                startGame(player, value);
+                break;
+            case GameLog.RESUME:
+                resumeGame();
+                break;
+            case GameLog.DRAW:
+                check(drawPile.getLength() != 0 && drawPile.getLast() == card, "drawn card is not on the draw pile");
+                if(penalty != 0 && (penaltyPlayer == -1 || penaltyPlayer == player)) {
+                    penalty--;
+                    penaltyPlayer = player;
+                } else {
+                    checkTurn(player);
+                    check(!drawn && !acted, "player drew twice, or after playing or passing");
+                    drawn = true;
+                }
+                hands[player].addCard(drawPile.draw());
+                break;
+            case GameLog.FLIP:
+                check(drawPile.getLength() != 0 && drawPile.getLast() == card, "flipped card is not on the draw pile");
+                discardPile.createDeck();
+                if(Card.getCardAction(card) != CardAction.DRAW4)    //a wild draw four is reshuffled, not resolved
+                    resolve(card, currentTurn, Rules.flipSteps(Rules.effects(card, hands.length)), currentTurn);
+                break;
+            case GameLog.PLAY:
+                checkTurn(player);
+                check(!acted, "player played after playing or passing");
+                check(hands[player].holds(card), "played card is not in the player's hand");
+                check(!drawn || card == hands[player].getLast(), "played card is not the card drawn this turn");
+                check(hands[player].isPlayable(card), "played card is not playable on the discard pile");
+                hands[player].playCard(card);
+                acted = true;
+                resolve(card, player, Rules.playSteps(Rules.effects(card, hands.length)), -1);
+                break;
+            case GameLog.PASS:
+                checkTurn(player);
+                check(!acted, "player passed after playing or passing");
+                check(drawn || drawPile.getLength() == 0, "player passed without drawing");
+                acted = true;
+                currentTurn = next(player, 1);
+                break;
+            case GameLog.COLOR:
+                check(colorPlayer != NO_COLOR && (colorPlayer == -1 || colorPlayer == player),
+                        "color picked without a wild card, or by another player");
+                check(value < CardColor.WILD.ordinal(), "picked color is not a color");
+                discardPile.setWildColor(CardColor.values()[value]);
+                colorPlayer = NO_COLOR;
+                break;
+            case GameLog.DIRECTION:
+                check(reversing && value == direction.ordinal(), "direction switched without a reverse card");
+                reversing = false;
+                break;
+            case GameLog.RESHUFFLE:
+                discardPile.removeCards();
+                readCards(drawPile);
+                break;
+            case GameLog.END:
+                check(running, "game ended twice");
+                check(player == GameLog.NO_PLAYER || hands[player].getLength() == 0, "winner has cards left");
+                winner = player == GameLog.NO_PLAYER ? -1 : player;
+                running = false;
+                break;
+            default:
+                throw new IllegalStateException("Unknown record type " + type + " at " + (buffer.position() - 4));
+        }
+        return true;
+    }
+
+    //Creates the piles and hands of a new game, the draw pile's order follows the START record
+    private void startGame(int players, int decks) {
+        seed = buffer.getLong();
+        drawPile = new DrawPile(decks);
+        discardPile = new DiscardPile(drawPile);
+        hands = new Hand[players];
+        for(int i = 0; i < players; i++) {
+            hands[i] = new Hand(drawPile, discardPile, GameView.HEADLESS, null, i);
+        }
+        readCards(drawPile);
+        for(Hand hand : hands) {
+            hand.createDeck();              //the deal is not logged
+        }
+        currentTurn = -1;
+        direction = Direction.CW;
+        winner = -1;
+        running = true;
+        drawn = false;
+        acted = false;
+        colorPlayer = NO_COLOR;
+        reversing = false;
+        penalty = 0;
+    }
+
+    //Restores the game from the snapshot that follows a RESUME record, the next turn is the snapshot's current turn
+    private void resumeGame() {
+        int length = buffer.getInt();
+        check(length >= 0 && length <= buffer.remaining(), "snapshot is larger than the log");
+        Game game = GameSnapshot.read((ByteBuffer) buffer.slice().limit(length), SEATS);
+        buffer.position(buffer.position() + (length + 3 & ~3));
+        Player[] players = game.getPlayers();
+        drawPile = game.getDrawPile();
+        discardPile = game.getDiscardPile();
+        hands = new Hand[players.length];
+        for(int i = 0; i < players.length; i++) {
+            hands[i] = players[i].getHand();
+        }
+        seed = game.getSeed();
+        currentTurn = game.getCurrentTurn();
+        direction = game.getDirection();
+        winner = -1;
+        running = true;
+        drawn = false;
+        acted = false;
+        colorPlayer = NO_COLOR;
+        reversing = false;
+        penalty = 0;
+    }
+
+    //Starts the turn of a player, which must be the player after the previous turn, unless this is the first turn
+    private void startTurn(int player) {
+        check(currentTurn == -1 || player == currentTurn, "turn is not the next player's");
+        check(colorPlayer == NO_COLOR && !reversing, "color or direction was not changed as the card called for");
+        currentTurn = player;
+        drawn = false;
+        acted = false;
+        penalty = 0;                        //the draw pile may have run out before the whole penalty was drawn
+    }
+
+    private void checkTurn(int player) {
+        check(currentTurn != -1 && player == currentTurn, "player acted out of turn");
+    }
+
+    /* Applies the effects of a card played or flipped by the given player (-1 if unknown), like the game does
+     * The player picks a color for a wild card, the direction is switched by a reverse card, and the draw penalty is
+     * drawn by the next player for a played card and by the given target for a flipped card
+     */
+    private void resolve(int card, int player, int steps, int flipTarget) {
+        int effects = Rules.effects(card, hands.length);
+        colorPlayer = Rules.picksColor(effects) ? player : NO_COLOR;
+        if(Rules.reverses(effects)) {
+            direction = direction == Direction.CW ? Direction.CCW : Direction.CW;
+            reversing = true;
+        }
+        penalty = Rules.draws(effects);
+        penaltyPlayer = player == -1 ? -1 : flipTarget != -1 ? flipTarget : next(player, 1);
+        if(player != -1)
+            currentTurn = next(player, steps);
+    }
+
+    //Player the given number of turns after the given player, in the direction of play
+    private int next(int player, int steps) {
+        int step = direction == Direction.CW ? steps : hands.length - steps;
+        return (player + step) % hands.length;
+    }
+
+    //Replaces the cards of a deck with the cards that follow a START or RESHUFFLE record
+    private void readCards(Deck deck) {
+        int length = buffer.getInt();
+        deck.removeCards();
+        for(int i = 0; i < length; i++) {
+            deck.addCard(buffer.getShort());
+        }
+        buffer.position(buffer.position() + 2 * (length % 2));
+    }
+
+    private void check(boolean condition, String message) {
+        if(!condition)
+            throw new IllegalStateException("Log doesn't match the replayed game at " + (buffer.position() - 4) +
+                    ": " + message);
+    }
+
+    /* Returns the position after the last record of a log file, which is where new records are appended
+     * The file is longer than its records (the rest of the file is zeros), the search starts at the position saved in
+     * the header and skips the records that follow it, written after the last game that ended if the log was not closed
+     */
+    static long findEnd(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(GameLog.HEADER_SIZE);
+        channel.read(header, 0);                    //a header that isn't there yet reads as zeros
+        long start = Math.max(header.getLong(0), GameLog.HEADER_SIZE);
+        long size = channel.size();
+        if(size <= start)
+            return start;
+        if(size - start > Integer.MAX_VALUE)
+            throw new IOException("Logs with more than 2 GB of unfinished records can't be appended to");
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, size - start);
+        while(buffer.remaining() >= 4) {
+            int type = buffer.getInt(buffer.position()) >>> 24;
+            if(type == 0)
+                break;
+            buffer.position(buffer.position() + 4);
+            if(type == GameLog.START)
+                buffer.position(buffer.position() + 8);
+            if(type == GameLog.START || type == GameLog.RESHUFFLE) {
+                int length = buffer.getInt();
+                buffer.position(buffer.position() + 2 * length + 2 * (length % 2));
+            }
+            if(type == GameLog.RESUME) {
+                int length = buffer.getInt();
+                buffer.position(buffer.position() + (length + 3 & ~3));
+            }
+        }
+        return start + buffer.position();
+    }
+
+    DrawPile getDrawPile() {
+        return drawPile;
+    }
+
+    DiscardPile getDiscardPile() {
+        return discardPile;
+    }
+
+    Hand[] getHands() {
+        return hands;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    int getCurrentTurn() {
+        return currentTurn;
+    }
+
+    Direction getDirection() {
+        return direction;
+    }
+
+    int getWinner() {
+        return winner;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+}
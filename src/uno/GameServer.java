@@ -0,0 +1,363 @@
+/* GameServer.java
+ * Hosts the tables of a TableHost for remote clients that speak the binary Protocol over TCP
+ * One selector thread accepts the clients, reads their moves and writes the messages queued for them, the tables are
+ * played on the host's pool, so a connection costs two small buffers and no thread
+ * Clients that join with the same number of players and of human seats are seated together, the table opens as soon
+ * as its human seats are filled and the other seats are CPUPlayers
+ * Messages to a client are encoded by the table's listener on the pool into the connection's output buffer, the
+ * connection is then queued for the selector thread, which is woken up once for all the connections queued meanwhile
+ * A client only gets a TURN when it has a move to make, so the output of a client that stops reading can't grow
+ * beyond a few messages
+ * When a client leaves, its table is closed and the other clients of the table are disconnected
+ * Usage: java uno.GameServer [port] [pace millis] [seed]
+ */
+
+package uno;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class GameServer implements Runnable {
+
+    static final int DEFAULT_PORT = 7777;
+
+    private static final int BACKLOG = 4096;            //connections waiting to be accepted
+    private static final int INPUT_SIZE = 256;          //bytes of a client's frames that can be buffered
+
+    private final TableHost host;
+    private final TurnPacer pacer;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Map<Integer, List<Connection>> lobby;     //clients waiting for a table, by players and human seats
+    private final Queue<Connection> writes;             //connections with messages to write
+    private final AtomicBoolean wakingUp;               //true while the selector was woken up and didn't drain writes
+    private final ByteBuffer scratch;                   //frame being read, on the selector thread
+    private final LongAdder messagesIn;
+    private final LongAdder messagesOut;
+    private volatile boolean running;
+    private Thread thread;
+
+    GameServer(int port, int threads, long seed, TurnPacer pacer) throws IOException {
+        host = new TableHost(threads, seed);
+        this.pacer = pacer;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), BACKLOG);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        lobby = new HashMap<>();
+        writes = new ConcurrentLinkedQueue<>();
+        wakingUp = new AtomicBoolean();
+        scratch = ByteBuffer.allocate(INPUT_SIZE);
+        messagesIn = new LongAdder();
+        messagesOut = new LongAdder();
+    }
+
+    public static void main(String [] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        TurnPacer pacer = args.length > 1 ? new TurnPacer(Long.parseLong(args[1])) : TurnPacer.TURBO;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : Randomness.newSeed();
+        GameServer server = new GameServer(port, Runtime.getRuntime().availableProcessors(), seed, pacer);
+        System.out.printf("Listening on port %d, pace: %d ms%n", server.getPort(), pacer.getPaceMillis());
+        server.run();
+    }
+
+    //Runs the selector loop on a new thread
+    void start() {
+        thread = new Thread(this, "GameServer");
+        thread.start();
+    }
+
+    //Stops the selector loop, disconnects every client and closes the tables
+    void stop() throws InterruptedException, IOException {
+        running = false;
+        selector.wakeup();
+        if(thread != null)
+            thread.join();
+        for(SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        host.close();
+    }
+
+    @Override
+    public void run() {
+        running = true;
+        try {
+            while(running) {
+                selector.select();
+                wakingUp.set(false);
+                Connection connection;
+                while((connection = writes.poll()) != null) {
+                    connection.queued.set(false);
+                    flush(connection);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while(keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if(!key.isValid())
+                        continue;
+                    if(key.isAcceptable())
+                        accept();
+                    else {
+                        connection = (Connection) key.attachment();
+                        if(key.isReadable())
+                            read(connection);
+                        if(key.isValid() && key.isWritable())
+                            flush(connection);
+                    }
+                }
+            }
+        }
+        catch(IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    //Reads what the client sent and handles every complete frame
+    private void read(Connection connection) {
+        if(!connection.key.isValid())
+            return;
+        ByteBuffer in = connection.in;
+        try {
+            if(connection.channel.read(in) == -1) {
+                disconnect(connection);
+                return;
+            }
+        }
+        catch(IOException e) {
+            disconnect(connection);
+            return;
+        }
+        in.flip();
+        int length;
+        while((length = Protocol.frameLength(in)) != -1) {
+            scratch.clear();
+            scratch.put(in.array(), in.arrayOffset() + in.position(), length).flip();
+            in.position(in.position() + length);
+            messagesIn.increment();
+            if(length < Protocol.HEADER_SIZE || !handle(connection, scratch)) {
+                disconnect(connection);
+                return;
+            }
+        }
+        in.compact();
+        if(!in.hasRemaining())
+            disconnect(connection);     //a frame that doesn't fit in the buffer isn't a frame a client sends
+    }
+
+    //Handles a frame sent by a client, returns false if the frame breaks the protocol
+    private boolean handle(Connection connection, ByteBuffer frame) {
+        frame.position(2);
+        int type = frame.get();
+        if(type == Protocol.JOIN) {
+            if(frame.remaining() < 2 || connection.table != null || connection.waiting)
+                return false;
+            int players = frame.get();
+            int humans = frame.get();
+            if(players < 2 || players > Game.MAX_PLAYERS || humans < 1 || humans > players)
+                return false;
+            join(connection, players, humans);
+            return true;
+        }
+        Table table = connection.table;
+        if(table == null)
+            return false;
+        if(type == Protocol.PLAY) {
+            if(frame.remaining() < 3)
+                return false;
+            int card = frame.getShort() & 0xffff;
+            int colorIndex = frame.get() & 0xff;
+            if(card >= Card.MAX_CARDS)
+                return false;
+            CardColor color = colorIndex < CardColor.values().length ? CardColor.values()[colorIndex] : null;
+            table.submit(connection.seat, Table.PLAY, card, color);
+        }
+        else if(type == Protocol.DRAW)
+            table.submit(connection.seat, Table.DRAW, 0, null);
+        else if(type == Protocol.PASS)
+            table.submit(connection.seat, Table.PASS, 0, null);
+        else
+            return false;
+        return true;
+    }
+
+    //Seats a client in the lobby and opens the table once all its human seats are taken
+    private void join(Connection connection, int players, int humans) {
+        List<Connection> waiting = lobby.computeIfAbsent(players << 8 | humans, key -> new ArrayList<>());
+        waiting.add(connection);
+        connection.waiting = true;
+        if(waiting.size() < humans)
+            return;
+        lobby.remove(players << 8 | humans);
+        Connection[] seats = waiting.toArray(new Connection[0]);
+        Seats listener = new Seats(seats);
+        //SEATED is queued before the table can queue its first TURN
+        Table table = host.newTable(players, humans, pacer, listener);
+        for(int i = 0; i < seats.length; i++) {
+            seats[i].waiting = false;
+            seats[i].table = table;
+            seats[i].seat = i;
+            int seat = i;
+            send(seats[i], out -> Protocol.seated(out, table.getId(), seat, players));
+        }
+        table.open();
+    }
+
+    //Encodes a message into the output of a connection and queues the connection for the selector thread
+    private void send(Connection connection, Message message) {
+        synchronized(connection) {
+            if(connection.out.remaining() < Protocol.MAX_FRAME) {
+                ByteBuffer out = ByteBuffer.allocate(connection.out.capacity() * 2);
+                connection.out.flip();
+                connection.out = out.put(connection.out);
+            }
+            message.encode(connection.out);
+        }
+        messagesOut.increment();
+        if(connection.queued.compareAndSet(false, true)) {
+            writes.add(connection);
+            if(wakingUp.compareAndSet(false, true))
+                selector.wakeup();
+        }
+    }
+
+    //Writes as much of the output of a connection as the socket takes, the rest is written once it is writable
+    private void flush(Connection connection) {
+        if(!connection.key.isValid())
+            return;
+        boolean done;
+        try {
+            synchronized(connection) {
+                ByteBuffer out = connection.out;
+                out.flip();
+                connection.channel.write(out);
+                done = !out.hasRemaining();
+                out.compact();
+            }
+        }
+        catch(IOException e) {
+            disconnect(connection);
+            return;
+        }
+        connection.key.interestOps(done ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    //Closes a connection, its table and the connections of the other clients of the table
+    private void disconnect(Connection connection) {
+        close(connection);
+        if(connection.waiting) {
+            for(List<Connection> waiting : lobby.values()) {
+                waiting.remove(connection);
+            }
+        }
+        Table table = connection.table;
+        if(table != null) {
+            host.closeTable(table);
+            for(Connection other : connection.seats.seats) {
+                other.table = null;
+                close(other);
+            }
+        }
+    }
+
+    private static void close(Connection connection) {
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        }
+        catch(IOException ignored) {
+        }
+    }
+
+    int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    //Frames received from and sent to all clients
+    long getMessagesIn() {
+        return messagesIn.sum();
+    }
+
+    long getMessagesOut() {
+        return messagesOut.sum();
+    }
+
+    private interface Message {
+
+        void encode(ByteBuffer out);
+    }
+
+    //A client, its buffers are read and written by the selector thread, out is also filled by the tables
+    private static class Connection {
+
+        final SocketChannel channel;
+        final ByteBuffer in;
+        final AtomicBoolean queued;             //true while the connection is in the queue of writes
+        ByteBuffer out;                         //guarded by the connection
+        SelectionKey key;
+        boolean waiting;                        //true while the client is in the lobby
+        Table table;
+        int seat;
+        Seats seats;                            //listener of the table
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            in = ByteBuffer.allocate(INPUT_SIZE);
+            out = ByteBuffer.allocate(2 * Protocol.MAX_FRAME);   //room for a frame without growing on the first send
+            queued = new AtomicBoolean();
+        }
+    }
+
+    //Listener of a table, sends the table's state to the client of the seat that has to move
+    private class Seats implements Table.Listener {
+
+        final Connection[] seats;
+
+        Seats(Connection[] seats) {
+            this.seats = seats;
+            for(Connection connection : seats) {
+                connection.seats = this;
+            }
+        }
+
+        @Override
+        public void awaitingMove(Table table, int seat) {
+            send(seats[seat], out -> Protocol.turn(out, table, seat));
+        }
+
+        @Override
+        public void gameEnded(Table table, int winner) {
+            for(Connection connection : seats) {
+                send(connection, out -> Protocol.gameOver(out, winner));
+            }
+        }
+    }
+}
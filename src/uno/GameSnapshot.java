@@ -0,0 +1,209 @@
+/* GameSnapshot.java
+ * Saves the full state of a game in progress to a compact versioned binary format, and restores games from it
+ * Snapshots are taken between turns, a restored game continues with the turn of the player that was next
+ *
+ * Format (big-endian):
+ * magic (4)        MAGIC, "UNOS"
+ * version (1)      VERSION
+ * players (1), decks (1), current turn (1), direction (1, Direction ordinal), wild color (1, CardColor ordinal)
+ * drawn (4)        bitset of the players that have drawn a card this turn, bit i is the player at index i
+ * seed (8), turns (4)
+ * stream seed (8)  seed the game's random streams were last started from (see Game.reseed()), since version 2
+ * piles            the draw pile, the discard pile and each player's hand, in the order of the players: the number of
+ *                  cards (2) followed by the card ids (2 each), bottom to top
+ *
+ * A 4-player game is about 260 bytes, the largest snapshot (MAX_SIZE) about 1.8 KB
+ * A restored game restarts its random streams from the stream seed, so a snapshot taken right after Game.reseed()
+ * (as the Checkpoint's snapshots are) restores a game that makes the same reshuffles and CPU moves as the saved one
+ * Version 1 snapshots have no stream seed, the streams of the restored game start over from the game's seed
+ */
+
+package uno;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+final class GameSnapshot {
+
+    static final int MAGIC = 0x554e4f53;
+    static final int VERSION = 2;
+    private static final int HEADER_SIZE = 4 + 1 + 5 + 4 + 8 + 4 + 8;
+    static final int MAX_SIZE = HEADER_SIZE + 2 * (Game.MAX_PLAYERS + 2) + 2 * Card.MAX_CARDS;
+
+    private GameSnapshot() {}
+
+    //Writes the state of the game, the buffer must have MAX_SIZE bytes left
+    static void write(Game game, ByteBuffer out) {
+        Player[] players = game.getPlayers();
+        DiscardPile discardPile = game.getDiscardPile();
+        out.putInt(MAGIC);
+        out.put((byte) VERSION);
+        out.put((byte) players.length);
+        out.put((byte) game.getDrawPile().getDecks());
+        out.put((byte) game.getCurrentTurn());
+        out.put((byte) game.getDirection().ordinal());
+        out.put((byte) discardPile.getWildColor().ordinal());
+        int drawn = 0;
+        for(int i = 0; i < players.length; i++) {
+            if(players[i].isDrawn())
+                drawn |= 1 << i;
+        }
+        out.putInt(drawn);
+        out.putLong(game.getSeed());
+        out.putInt(game.getTurns());
+        out.putLong(game.getStreamSeed());
+        cards(out, game.getDrawPile());
+        cards(out, discardPile);
+        for(Player player : players) {
+            cards(out, player.getHand());
+        }
+    }
+
+    private static void cards(ByteBuffer out, Deck deck) {
+        int length = deck.getLength();
+        out.putShort((short) length);
+        for(int i = 0; i < length; i++) {
+            out.putShort((short) deck.get(i));
+        }
+    }
+
+    /* Restores a headless game from a snapshot, seats[i] creates the player at index i
+     * The game is running, its turns are played with playTurn()
+     */
+    static Game read(ByteBuffer in, PlayerFactory[] seats) {
+        State state = State.read(in);
+        Game game = Game.headless(state.players, state.decks, state.seed);
+        state.restore(game, seats);
+        return game;
+    }
+
+    /* Restores the desktop game from a snapshot, the user and the bots are seated by the game
+     * The game's piles must be empty, as they are before a game starts, and the game is left as it was if the snapshot
+     * is rejected
+     */
+    static void read(ByteBuffer in, Game game) {
+        State state = State.read(in);
+        game.initTable(state.players, state.decks, state.seed);
+        state.restore(game, null);
+    }
+
+    //Checks the magic, the version and the size of the table, returns the version of the snapshot
+    private static int checkHeader(ByteBuffer in) {
+        if(in.remaining() < HEADER_SIZE || in.getInt() != MAGIC)
+            throw new IllegalArgumentException("Not a game snapshot");
+        int version = in.get();
+        if(version < 1 || version > VERSION)
+            throw new IllegalArgumentException("Unsupported snapshot version " + version);
+        int players = in.get(in.position());
+        int decks = in.get(in.position() + 1);
+        Game.checkPlayers(players);
+        check(decks >= Game.decksFor(players) && decks <= Card.MAX_DECKS, "number of decks");
+        return version;
+    }
+
+    //Contents of a snapshot, read and checked in full before any game is created or changed
+    private static final class State {
+
+        int players;
+        int decks;
+        int currentTurn;
+        int direction;
+        int wildColor;
+        int drawn;
+        long seed;
+        int turns;
+        long streamSeed;
+        short[] drawPile;
+        short[] discardPile;
+        short[][] hands;
+        int[] handSizes;
+
+        /* Reads a snapshot
+         * Every card of the decks must be in exactly one pile or hand, a snapshot that is cut short or holds values
+         * out of range is rejected with an IllegalArgumentException
+         */
+        static State read(ByteBuffer in) {
+            try {
+                return readChecked(in);
+            } catch(BufferUnderflowException e) {
+                throw new IllegalArgumentException("Snapshot is cut short");
+            }
+        }
+
+        private static State readChecked(ByteBuffer in) {
+            int version = checkHeader(in);
+            State state = new State();
+            state.players = in.get();
+            state.decks = in.get();
+            state.currentTurn = in.get();
+            state.direction = in.get();
+            state.wildColor = in.get();
+            state.drawn = in.getInt();
+            state.seed = in.getLong();
+            state.turns = in.getInt();
+            state.streamSeed = version >= 2 ? in.getLong() : state.seed;
+            int players = state.players;
+            check(state.currentTurn >= 0 && state.currentTurn < players, "current turn");
+            check(state.direction >= 0 && state.direction < Direction.values().length, "direction");
+            check(state.wildColor >= 0 && state.wildColor < CardColor.values().length, "wild color");
+            check(state.drawn >>> players == 0, "drawn cards");
+            check(state.turns >= 0, "number of turns");
+            int total = state.decks * Card.DECK_SIZE;
+            boolean[] seen = new boolean[total];
+            state.drawPile = cards(in, seen);
+            state.discardPile = cards(in, seen);
+            state.hands = new short[players][];
+            state.handSizes = new int[players];
+            int count = state.drawPile.length + state.discardPile.length;
+            for(int i = 0; i < players; i++) {
+                state.hands[i] = cards(in, seen);
+                state.handSizes[i] = state.hands[i].length;
+                count += state.handSizes[i];
+            }
+            if(count != total)
+                throw new IllegalArgumentException("Snapshot holds " + count + " cards instead of " + total);
+            return state;
+        }
+
+        //Restores the state into a game created or set up for its players and decks, see read()
+        void restore(Game game, PlayerFactory[] seats) {
+            fill(game.getDrawPile(), drawPile);
+            fill(game.getDiscardPile(), discardPile);
+            game.getDiscardPile().setWildColor(CardColor.values()[wildColor]);
+            game.resume(seats, hands, handSizes, currentTurn, Direction.values()[direction]);
+            game.reseed(streamSeed);
+            Player[] seated = game.getPlayers();
+            for(int i = 0; i < players; i++) {
+                seated[i].setDrawn((drawn & 1 << i) != 0);
+            }
+            game.setTurns(turns);
+        }
+    }
+
+    //Reads the cards of a pile or hand, seen marks the cards read so far, so a card can't be in two places
+    private static short[] cards(ByteBuffer in, boolean[] seen) {
+        int length = in.getShort();
+        check(length >= 0 && length <= seen.length, "number of cards");
+        short[] cards = new short[length];
+        for(int i = 0; i < length; i++) {
+            int card = in.getShort();
+            check(card >= 0 && card < seen.length && !seen[card], "card " + card);
+            seen[card] = true;
+            cards[i] = (short) card;
+        }
+        return cards;
+    }
+
+    //Replaces the cards of a pile
+    private static void fill(Deck deck, short[] cards) {
+        deck.removeCards();
+        for(short card : cards) {
+            deck.addCard(card);
+        }
+    }
+
+    private static void check(boolean valid, String field) {
+        if(!valid)
+            throw new IllegalArgumentException("Invalid " + field + " in snapshot");
+    }
+}
@@ -0,0 +1,21 @@
+/* GameView.java
+ * Receives notifications from the game loop about things that should be shown or heard by the user
+ * The GUI implements this interface, while headless games use HEADLESS, which ignores every notification
+ */
+
+package uno;
+
+interface GameView {
+
+    //View used when the game runs without a GUI (simulations), all notifications are ignored
+    GameView HEADLESS = new GameView() {};
+
+    //Called when the game's state changed and the screen should be re-rendered
+    default void refresh() {}
+
+    //Called when a card was placed on the discard pile
+    default void cardPlayed() {}
+
+    //Called when a player drew card(s) from the draw pile
+    default void cardDrawn() {}
+}
@@ -1,161 +1,183 @@
 /* Hand.java
  * Represents a player's hand in game
+ * The hand is displayed by HandView
+ * Besides the list of cards, the hand keeps a bitset of its cards and the number of cards of each color, updated
+ * whenever a card is added or removed, so the playable cards are found by intersecting the bitset with the cards
+ * playable on the discard (see Card.playableMask()) and the wild draw four rule is a single count, with no scan
  */
 
 package uno;
 
-import javax.swing.*;
-import java.awt.*;
-
 public class Hand extends Deck {
 
     private DrawPile drawPile;
     private DiscardPile discardPile;
-    private GameGUI gameGUI;
-    private int startIndex;             //indicates the index to start displaying cards
-    private Card selected;              //card that was clicked on by mouse, making it ready to play (for human player)
-    private final int maxCards;         //indicates the maximum amount of cards to be displayed
-    private final int displayAngle;     //angle in which cards in this hand should be displayed (0, 90, 180, 270)
-    private final int gridx;            //x axis grid location of this panel in GridBagLayout
-    private final int gridy;            //y axis grid location of this panel in GridBagLayout
-
-    Hand(DrawPile drawPile, DiscardPile discardPile, GameGUI gameGUI, int maxCards, int displayAngle,
-         int gridx, int gridy) {
-
+    private GameView view;              //notified when cards are played or drawn
+    private GameLog log;                //records the cards played and drawn, null if the game is not logged
+    private final int player;           //index of the player holding this hand, used by the log
+    private final long[] members;       //bitset of the cards in this hand
+    private final int[] colorCounts;    //number of cards of each color, indexed by CardColor ordinal
+    private final long[] playable;      //bitset of the playable cards, filled by findPlayable()
+
+    Hand(DrawPile drawPile, DiscardPile discardPile, GameView view, GameLog log, int player) {
+        super(drawPile.getDecks());
         this.drawPile = drawPile;
         this.discardPile = discardPile;
-        this.gameGUI = gameGUI;
-        startIndex = 0;
-        selected = null;
-        this.maxCards = maxCards;
-        this.displayAngle = displayAngle;
-        this.gridx = gridx;
-        this.gridy = gridy;
-        if(displayAngle == 0 || displayAngle == 180)
-            setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
-    }
-
-    //Starts this hand with 7 cards
+        this.view = view;
+        this.log = log;
+        this.player = player;
+        members = new long[Card.words(drawPile.getDecks())];
+        colorCounts = new int[CardColor.values().length];
+        playable = new long[members.length];
+    }
+
     @Override
-    public void createDeck() {
-        for(int i = 0; i < 7; i++) {
-            Card card = drawPile.draw();
-            cards.addLast(card);
-        }
+    public void addCard(int card) {
+        super.addCard(card);
+        members[card >>> 6] |= 1L << (card & 63);
+        colorCounts[Card.getCardColor(card).ordinal()]++;
     }
 
-    /* Cards in indices ranging from startIndex up until the sum of startIndex and maxCards are displayed
-     * as long as the index is not out of bounds
-     * The layout is different for the left and right hands (90 and 270)
-     * because their cards are displayed in a top to down manner
-     */
-    public void displayCards(boolean front) {
-        JPanel cardsPanel = new JPanel();
-        if(displayAngle == 90 || displayAngle == 270)
-            cardsPanel.setLayout(new BoxLayout(cardsPanel, BoxLayout.PAGE_AXIS));
-        for(int i = startIndex; i < startIndex + maxCards; i++) {
-            if(i < cards.size()) {
-                Card card = cards.get(i);
-                card.setCardIcon(front, displayAngle);
-                cardsPanel.add(card);
-            }
-        }
-        add(cardsPanel);
+    @Override
+    public int remove(int index) {
+        int card = super.remove(index);
+        members[card >>> 6] &= ~(1L << (card & 63));
+        colorCounts[Card.getCardColor(card).ordinal()]--;
+        return card;
     }
 
-    /* Adds this panel to the frame
-     * removeAll() is called because the GUI is redisplayed with updated components at least once per turn
-     */
-    public void addToFrame(JFrame frame) {
-        removeAll();
-        GridBagConstraints c = new GridBagConstraints();
-        c.gridx = gridx;
-        c.gridy = gridy;
-        frame.add(this, c);
+    @Override
+    public int draw() {
+        return remove(size - 1);
     }
 
-    /* Displays the player label
-     * Displays the number of cards in this hand
-     */
-    public void displayInfo(int playerLabel) {
-        JLabel name = new JLabel("Player " + (playerLabel));
-        JLabel cardInfo = new JLabel("Number of cards: " + cards.size());
-        JPanel namePanel = new JPanel();
-        JPanel infoPanel = new JPanel();
-        JPanel nameAndInfoPanel = new JPanel();
-        nameAndInfoPanel.setLayout(new BoxLayout(nameAndInfoPanel, BoxLayout.PAGE_AXIS));
-        if(displayAngle == 90 || displayAngle == 180)
-            add(nameAndInfoPanel);
-        else
-            add(nameAndInfoPanel, 0);   //in the bottom and right hands, the info must be placed before cards
-        namePanel.add(name);
-        infoPanel.add(cardInfo);
-        nameAndInfoPanel.add(namePanel);
-        nameAndInfoPanel.add(infoPanel);
-    }
-
-    //Increments the start index as long as the incrementation doesn't prevent the display of maximum cards on screen
-    public void increaseStartIndex() {
-        if(startIndex < cards.size() - maxCards) {
-            startIndex += 1;
+    @Override
+    public void removeCards() {
+        super.removeCards();
+        for(int i = 0; i < members.length; i++) {
+            members[i] = 0;
+        }
+        for(int i = 0; i < colorCounts.length; i++) {
+            colorCounts[i] = 0;
         }
     }
 
-    //Decreases the start index if it is greater than 0
-    public void decreaseStartIndex() {
-        if(startIndex > 0) {
-            startIndex -= 1;
+    /* Starts this hand with 7 cards
+     * The deal is not logged, the draw pile of the START record already gives the cards of every hand
+     */
+    @Override
+    public void createDeck() {
+        for(int i = 0; i < 7; i++) {
+            addCard(drawPile.draw());
         }
     }
 
+    //Moves the top card of the draw pile to this hand
+    private void take() {
+        int card = drawPile.draw();
+        addCard(card);
+        if(log != null)
+            log.draw(player, card);
+    }
+
     /* Checks if a wild draw four card is playable
      * This method was not implemented in the Card class because the check for the playability of a
      * Wild Draw Four card is solely based on the playability of other cards in the hand
      * If any card in the hand matches colors with the top of the discard pile, then a Wild Draw Four is not playable
      * otherwise, it is playable
      */
-    boolean isWildDrawFourPlayable(Card discard) {
-        for(Card card : cards) {
-            if(card.matchesColor(discard))
-                return false;
+    boolean isWildDrawFourPlayable() {
+        return colorCounts[discardPile.getColor().ordinal()] == 0;
+    }
+
+    /* Finds the cards of this hand that are playable on the top of the discard pile and returns their number
+     * The cards are then read with getPlayable()
+     */
+    int findPlayable() {
+        int discard = discardPile.getLast();
+        CardColor discardColor = discardPile.getColor();
+        boolean draw4 = isWildDrawFourPlayable();
+        int count = 0;
+        for(int i = 0; i < playable.length; i++) {
+            long word = members[i] & Card.playableMask(discard, discardColor, i);
+            if(!draw4)
+                word &= ~Card.draw4Mask(i);
+            playable[i] = word;
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    //Returns the playable card of the given rank (0 to the number found by findPlayable() - 1), in order of id
+    int getPlayable(int rank) {
+        for(int i = 0; i < playable.length; i++) {
+            long word = playable[i];
+            int count = Long.bitCount(word);
+            if(rank < count) {
+                for(int j = 0; j < rank; j++) {
+                    word &= word - 1;       //clears the lowest bit
+                }
+                return i << 6 | Long.numberOfTrailingZeros(word);
+            }
+            rank -= count;
         }
-        return true;
+        return -1;
+    }
+
+    //Returns a word of the bitset of the cards in this hand, card id >>> 6 is the word holding the card
+    long getMembers(int word) {
+        return members[word];
+    }
+
+    //Checks if the card is in this hand, with the bitset instead of a scan of the cards
+    boolean holds(int card) {
+        return card >= 0 && card >>> 6 < members.length && (members[card >>> 6] & 1L << (card & 63)) != 0;
+    }
+
+    //Returns the last card of this hand of the given kind (see Card.getKind()), -1 if there is none
+    int findKind(int kind) {
+        for(int i = size - 1; i >= 0; i--) {
+            if(Card.getKind(get(i)) == kind)
+                return get(i);
+        }
+        return -1;
+    }
+
+    //Number of cards of the given color in this hand
+    int getColorCount(CardColor color) {
+        return colorCounts[color.ordinal()];
+    }
+
+    //Checks if a card in this hand can be played on the top of the discard pile
+    boolean isPlayable(int card) {
+        if(Card.getCardAction(card) == CardAction.DRAW4)
+            return isWildDrawFourPlayable();
+        return Card.isPlayableOn(card, discardPile.getLast(), discardPile.getColor());
     }
 
     /* Removes the card from this hand and places it in the discard pile
-     * Plays the corresponding audio
+     * Notifies the view, which plays the corresponding audio
      */
-    void playCard(Card card) {
+    void playCard(int card) {
+        remove(indexOf(card));
         discardPile.addCard(card);
-        cards.remove(card);
-        GameAudio.load(GameAudio.CARD_PLAY);
-        GameAudio.play();
+        if(log != null)
+            log.play(player, card);
+        view.cardPlayed();
     }
 
     /* Draw card(s) from draw pile
-     * Plays the corresponding audio
+     * Notifies the view, which plays the corresponding audio and re-renders the screen
      */
     void drawCard(int num) {
         boolean didDraw = false;
         for(int i = 0; i < num; i++) {
             if(drawPile.getLength() != 0) {
-                Card draw = drawPile.draw();
-                cards.addLast(draw);
+                take();
                 didDraw = true;
             }
         }
-        if(didDraw) {
-            GameAudio.load(GameAudio.CARD_DRAW);    //loads the audio input stream with the Card draw sound
-            GameAudio.play();
-            gameGUI.startTimer();                   //re-renders screen contents to show that this player drew card(s)
-        }
-    }
-
-    void setSelected(Card selected) {
-        this.selected = selected;
-    }
-
-    Card getSelected() {
-        return selected;
+        if(didDraw)
+            view.cardDrawn();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,121 @@
+/* HandView.java
+ * Displays a player's hand and the player's info
+ * Only the cards between startIndex and startIndex + maxCards are shown
+ * The panels are created once, render() only replaces the card buttons when the shown cards have changed
+ */
+
+package uno;
+
+import javax.swing.*;
+import java.awt.*;
+
+public class HandView extends JPanel {
+
+    private final Hand hand;
+    private int startIndex;             //indicates the index to start displaying cards
+    private final int maxCards;         //indicates the maximum amount of cards to be displayed
+    private final int displayAngle;     //angle in which cards in this hand should be displayed (0, 90, 180, 270)
+    private final JPanel cardsPanel;    //contains the buttons of the shown cards
+    private final JLabel cardInfo;      //shows the number of cards in this hand
+    private final short[] shown;        //cards shown by the last render, in display order
+    private int shownCount;             //number of cards in the shown array
+    private int shownLength;            //length of the hand shown in cardInfo, -1 if never rendered
+
+    HandView(Hand hand, int playerLabel, int maxCards, int displayAngle) {
+        this.hand = hand;
+        startIndex = 0;
+        this.maxCards = maxCards;
+        this.displayAngle = displayAngle;
+        shown = new short[maxCards];
+        shownCount = 0;
+        shownLength = -1;
+        if(displayAngle == 0 || displayAngle == 180)
+            setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
+        cardsPanel = new JPanel();
+        if(displayAngle == 90 || displayAngle == 270)
+            cardsPanel.setLayout(new BoxLayout(cardsPanel, BoxLayout.PAGE_AXIS));
+        cardInfo = new JLabel();
+        JPanel nameAndInfoPanel = infoPanel(playerLabel);
+        if(displayAngle == 90 || displayAngle == 180) {
+            add(cardsPanel);
+            add(nameAndInfoPanel);
+        }
+        else {
+            add(nameAndInfoPanel);      //in the bottom and right hands, the info must be placed before cards
+            add(cardsPanel);
+        }
+    }
+
+    /* Creates the panel with the player label and the number of cards in this hand
+     * The number of cards is filled in by render()
+     */
+    private JPanel infoPanel(int playerLabel) {
+        JLabel name = new JLabel("Player " + (playerLabel));
+        JPanel namePanel = new JPanel();
+        JPanel infoPanel = new JPanel();
+        JPanel nameAndInfoPanel = new JPanel();
+        nameAndInfoPanel.setLayout(new BoxLayout(nameAndInfoPanel, BoxLayout.PAGE_AXIS));
+        namePanel.add(name);
+        infoPanel.add(cardInfo);
+        nameAndInfoPanel.add(namePanel);
+        nameAndInfoPanel.add(infoPanel);
+        return nameAndInfoPanel;
+    }
+
+    /* Cards in indices ranging from startIndex up until the sum of startIndex and maxCards are displayed
+     * as long as the index is not out of bounds
+     * Nothing is changed if the same cards are still shown, so re-rendering an unchanged hand costs a comparison
+     */
+    public void render(boolean front, CardButton[] cardButtons) {
+        int end = Math.min(startIndex + maxCards, hand.getLength());
+        if(!isShown(end, cardButtons)) {
+            cardsPanel.removeAll();
+            shownCount = 0;
+            for(int i = startIndex; i < end; i++) {
+                int card = hand.get(i);
+                CardButton cardButton = cardButtons[card];
+                cardButton.setCardIcon(front, displayAngle);
+                cardsPanel.add(cardButton);
+                shown[shownCount++] = (short) card;
+            }
+            cardsPanel.revalidate();
+            cardsPanel.repaint();
+        }
+        if(shownLength != hand.getLength()) {
+            shownLength = hand.getLength();
+            cardInfo.setText("Number of cards: " + shownLength);
+        }
+    }
+
+    /* Checks if the cards from startIndex to end are the cards shown by the last render
+     * A button is only in one panel at a time, so each button must also still be in this hand's panel
+     */
+    private boolean isShown(int end, CardButton[] cardButtons) {
+        if(end - startIndex != shownCount)
+            return false;
+        for(int i = 0; i < shownCount; i++) {
+            int card = hand.get(startIndex + i);
+            if(shown[i] != card || cardButtons[card].getParent() != cardsPanel)
+                return false;
+        }
+        return true;
+    }
+
+    //Increments the start index as long as the incrementation doesn't prevent the display of maximum cards on screen
+    public void increaseStartIndex() {
+        if(startIndex < hand.getLength() - maxCards) {
+            startIndex += 1;
+        }
+    }
+
+    //Decreases the start index if it is greater than 0
+    public void decreaseStartIndex() {
+        if(startIndex > 0) {
+            startIndex -= 1;
+        }
+    }
+
+    Hand getHand() {
+        return hand;
+    }
+}
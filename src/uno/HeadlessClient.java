@@ -0,0 +1,220 @@
+/* HeadlessClient.java
+ * Connects many bot clients to a GameServer over the binary Protocol, all of them on one selector thread
+ * Every bot plays like a CPUPlayer: the first playable card of its hand (a wild draw four only when no card matches
+ * the color), the drawn card if it is playable, and the color it has most of for wild cards
+ * Used to test the server over loopback and as its benchmark: once every client is seated, it reports the messages
+ * per second (sent and received by the clients), the turns per second played by the clients and the clients per core
+ * With -local the server is started in the same JVM on a free port, so clients and server share the cores
+ * Usage: java uno.HeadlessClient [-local | -connect host:port] [clients] [players] [humans] [seconds]
+ */
+
+package uno;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+public class HeadlessClient {
+
+    private final Selector selector;
+    private final int players;
+    private long messagesIn;
+    private long messagesOut;
+    private long turns;                         //TURN messages answered
+    private long games;                         //GAME_OVER messages received
+    private int seated;                         //clients that have a seat
+
+    HeadlessClient(int players) throws IOException {
+        selector = Selector.open();
+        this.players = players;
+    }
+
+    public static void main(String [] args) throws IOException, InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        GameServer server = null;
+        InetSocketAddress address = new InetSocketAddress("localhost", GameServer.DEFAULT_PORT);
+        int i = 0;
+        if(args.length > 0 && args[0].equals("-local")) {
+            server = new GameServer(0, Runtime.getRuntime().availableProcessors(), Randomness.newSeed(),
+                    TurnPacer.TURBO);
+            server.start();
+            address = new InetSocketAddress("localhost", server.getPort());
+            i++;
+        }
+        else if(args.length > 1 && args[0].equals("-connect")) {
+            String[] hostPort = args[1].split(":");
+            address = new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+            i += 2;
+        }
+        int clients = args.length > i ? Integer.parseInt(args[i]) : 1000;
+        int players = args.length > i + 1 ? Integer.parseInt(args[i + 1]) : 4;
+        int humans = args.length > i + 2 ? Integer.parseInt(args[i + 2]) : players;
+        int seconds = args.length > i + 3 ? Integer.parseInt(args[i + 3]) : 10;
+        if(clients % humans != 0)
+            throw new IllegalArgumentException("Number of clients must fill the human seats of every table");
+
+        HeadlessClient client = new HeadlessClient(players);
+        for(int j = 0; j < clients; j++) {
+            client.connect(address, humans);
+        }
+        while(client.seated < clients) {
+            client.poll(100);
+        }
+        long messagesBefore = client.messagesIn + client.messagesOut;
+        long turnsBefore = client.turns;
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        while(System.nanoTime() - end < 0) {
+            client.poll(100);
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        long messages = client.messagesIn + client.messagesOut - messagesBefore;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("Clients: %d, tables: %d, players: %d, time: %.2f s, cores: %d%s%n", clients,
+                clients / humans, players, secs, cores,
+                server != null ? " (shared by the clients and the server)" : "");
+        System.out.printf("Turns by the clients: %d, games ended: %d%n", client.turns - turnsBefore, client.games);
+        System.out.printf("Throughput: %.0f messages/s, %.0f client turns/s%n", messages / secs,
+                (client.turns - turnsBefore) / secs);
+        System.out.printf("Per core: %.0f messages/s, %.0f connected clients%n", messages / secs / cores,
+                (double) clients / cores);
+        if(server != null) {
+            server.stop();
+            System.out.printf("Server messages: %d received, %d sent%n", server.getMessagesIn(),
+                    server.getMessagesOut());
+        }
+    }
+
+    //Connects a bot and asks for a seat at a table of players seats, humans of them played by clients
+    private void connect(InetSocketAddress address, int humans) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Bot bot = new Bot(channel);
+        bot.key = channel.register(selector, SelectionKey.OP_READ, bot);
+        Protocol.join(bot.out, players, humans);
+        flush(bot);
+    }
+
+    //Handles the messages that arrive within the given time
+    private void poll(long millis) throws IOException {
+        selector.select(millis);
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while(keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Bot bot = (Bot) key.attachment();
+            if(key.isValid() && key.isWritable())
+                flush(bot);
+            if(key.isValid() && key.isReadable())
+                read(bot);
+        }
+    }
+
+    private void read(Bot bot) throws IOException {
+        ByteBuffer in = bot.in;
+        if(bot.channel.read(in) == -1) {
+            bot.key.cancel();
+            bot.channel.close();
+            throw new IOException("The server closed the connection of seat " + bot.seat);
+        }
+        in.flip();
+        int length;
+        while((length = Protocol.frameLength(in)) != -1) {
+            int end = in.position() + length;
+            int limit = in.limit();
+            in.limit(end);
+            in.position(in.position() + 2);
+            handle(bot, in.get(), in);
+            in.limit(limit);
+            in.position(end);
+            messagesIn++;
+        }
+        in.compact();
+        flush(bot);
+    }
+
+    private void handle(Bot bot, int type, ByteBuffer frame) {
+        if(type == Protocol.SEATED) {
+            frame.getInt();
+            bot.seat = frame.get();
+            seated++;
+        }
+        else if(type == Protocol.TURN) {
+            move(bot, frame);
+            turns++;
+        }
+        else if(type == Protocol.GAME_OVER)
+            games++;
+    }
+
+    //Answers a TURN with the move a CPUPlayer would make
+    private void move(Bot bot, ByteBuffer frame) {
+        int discard = frame.getShort() & 0xffff;
+        int colorIndex = frame.get() & 0xff;
+        CardColor color = colorIndex < CardColor.values().length ? CardColor.values()[colorIndex] : null;
+        frame.get();                                        //direction
+        boolean drawn = frame.get() != 0;
+        frame.position(frame.position() + 2 * players);     //hand sizes
+        int first = frame.position();
+        int last = frame.limit() - 2;
+        int[] counts = bot.colorCounts;
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        for(int i = first; i <= last; i += 2) {
+            counts[Card.getCardColor(frame.getShort(i) & 0xffff).ordinal()]++;
+        }
+        boolean matchesColor = color != null && color != CardColor.WILD && counts[color.ordinal()] > 0;
+        for(int i = drawn ? last : first; i <= last; i += 2) {
+            int card = frame.getShort(i) & 0xffff;
+            if(Card.isPlayableOn(card, discard, color) &&
+                    (Card.getCardAction(card) != CardAction.DRAW4 || !matchesColor)) {
+                CardColor pick = CPUPlayer.abundantColor(counts[CardColor.BLUE.ordinal()],
+                        counts[CardColor.RED.ordinal()], counts[CardColor.GREEN.ordinal()],
+                        counts[CardColor.YELLOW.ordinal()]);
+                Protocol.play(bot.out, card, Card.getCardColor(card) == CardColor.WILD ? pick : null);
+                messagesOut++;
+                return;
+            }
+        }
+        if(drawn)
+            Protocol.pass(bot.out);
+        else
+            Protocol.draw(bot.out);
+        messagesOut++;
+    }
+
+    //Writes the bot's moves, what the socket doesn't take is written once it is writable
+    private static void flush(Bot bot) throws IOException {
+        ByteBuffer out = bot.out;
+        if(out.position() == 0)
+            return;
+        out.flip();
+        bot.channel.write(out);
+        boolean done = !out.hasRemaining();
+        out.compact();
+        bot.key.interestOps(done ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    private static class Bot {
+
+        final SocketChannel channel;
+        final ByteBuffer in;
+        final ByteBuffer out;
+        final int[] colorCounts;                //cards of each color in the hand of the last TURN
+        SelectionKey key;
+        int seat;
+
+        Bot(SocketChannel channel) {
+            this.channel = channel;
+            in = ByteBuffer.allocate(4 * Protocol.MAX_FRAME);
+            out = ByteBuffer.allocate(256);
+            colorCounts = new int[CardColor.values().length];
+        }
+    }
+}
@@ -1,14 +1,16 @@
 /* HumanPlayer.java
  * Represents a human player in a game of UNO
  * The purpose of this class is to listen to action events that enable the player to take their turn within UNO rules
+ * Clicks are turned into actions on the Event Dispatch Thread and sent to the game's ActionInbox, the game thread
+ * takes them during the player's turn and checks them against the rules before changing the hand
  */
 
 package uno;
 
 import javax.swing.*;
+import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.LinkedList;
 
 public class HumanPlayer extends Player implements ActionListener {
 
@@ -16,8 +18,8 @@ public class HumanPlayer extends Player implements ActionListener {
     private Game game;
     private GameGUI gameGUI;
     private ColorSelector colorSelector;
-    private boolean turn;                   //this value is used to know when to detect button clicks
-    private boolean played;
+    private ActionInbox inbox;
+    private volatile int selected;          //card that was clicked on by mouse, making it ready to play, -1 if none
 
     HumanPlayer(Hand hand, DiscardPile discardPile, DrawPile drawPile, Game game,
                 GameGUI gameGUI, ColorSelector colorSelector) {
@@ -26,118 +28,143 @@ public class HumanPlayer extends Player implements ActionListener {
         this.game = game;
         this.gameGUI = gameGUI;
         this.colorSelector = colorSelector;
-        turn = false;
-        played = false;
+        inbox = game.getInbox();
+        selected = -1;
         AI = false;
     }
 
+    /* Takes the player's actions until the turn ends
+     * Returns true if the player played a card, false if player passed
+     */
     public boolean play() {
-        turn = true;            //sets turn to true to allow listening for events
-        game.sleepThread();     //sleeps the thread until player makes an action
-        turn = false;           //ends the turn to disable listening for events
-        return played;          //returns true if the player played a card, false if player passed
+        selected = -1;
+        inbox.accept(ActionType.PLAY, ActionType.DRAW, ActionType.PASS);    //clicks are only sent during the turn
+        try {
+            while(true) {
+                PlayerAction action = takeAction();
+                if(action.getType() == ActionType.PLAY && playCard(action.getCard()))
+                    return true;
+                else if(action.getType() == ActionType.DRAW)
+                    drawCard();
+                else if(action.getType() == ActionType.PASS && pass())
+                    return false;
+            }
+        } finally {
+            inbox.accept();
+        }
     }
 
-
     public void pickColor() {
-        gameGUI.startTimer();           //refreshes the GUI to show that a wild card was played
+        inbox.accept(ActionType.COLOR);
+        gameGUI.requestRender();        //refreshes the GUI to show that a wild card was played
         colorSelector.startTimer();     //displays the color selector dialog
-        game.sleepThread();             //sleeps the thread until the player chooses a color
+        PlayerAction action = takeAction();     //waits until the player chooses a color
+        inbox.accept();
+        discardPile.setWildColor(action.getColor());
     }
 
-    /* Adds a listener to the pass button
-     * Adds a listener to each card in the draw pile
-     * This method must be called before cards are distributed from the draw pile
-     * to ensure that there is a listener for every card in the game.
-     */
-    void addListeners() {
-        LinkedList<Card> cards = drawPile.cards();
-        for(Card card : cards) {
-            card.addActionListener(this);
-        }
-        gameGUI.getPass().addActionListener(this);
-    }
-
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if(turn && game.isRunning()) {
-            Hand hand = getHand();
-            if(e.getSource() == discardPile.getLast())
-                discardClicked(hand);
-            else if (e.getSource() == drawPile.getLast())
-                drawClicked(hand);
-            else if (e.getSource() == gameGUI.getPass())
-                passClicked();
-            else
-                cardClicked(e, hand);
+    //Waits on the next action of the player
+    private PlayerAction takeAction() {
+        while(true) {
+            try {
+                return inbox.take();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
         }
     }
 
-    /* When the discard pile is clicked and there is a selected card, the playability of that card is checked
-     * If the card is playable, it is placed in the discard pile and the thread is resumed
+    /* Places the card in the discard pile if it is playable
      * If the card is NOT playable, a message is displayed prompting the user to select a valid card
      */
-    private void discardClicked(Hand hand) {
-        if(hand.getSelected() != null) {
-            Card card = hand.getSelected();
-            Card discard = discardPile.getLast();
-            boolean playable;
-            if(card.getCardAction().equals(CardAction.DRAW4))
-                playable = hand.isWildDrawFourPlayable(discard);
-            else
-                playable = card.isPlayableOn(discard);
-            if(playable) {
-                hand.playCard(card);
-                hand.decreaseStartIndex();
-                played = true;
-                game.countDown();
-            }
-            else {
-                hand.setSelected(null);
-                showMessage("Select a valid card");
-            }
+    private boolean playCard(int card) {
+        Hand hand = getHand();
+        if(hand.indexOf(card) == -1)
+            return false;
+        if(isDrawn() && card != hand.getLast()) {
+            showMessage("Must select the card that was drawn this round");
+            return false;
+        }
+        if(!hand.isPlayable(card)) {
+            showMessage("Select a valid card");
+            return false;
         }
+        hand.playCard(card);
+        EventQueue.invokeLater(() -> gameGUI.decreaseStartIndex());
+        return true;
     }
 
-    //If the top card of the draw pile is clicked and the player has not drawn a card this round a card is drawn.
-    private void drawClicked(Hand hand) {
+    //A card is drawn if the player has not drawn a card this round
+    private void drawCard() {
         if(!isDrawn()) {
-            hand.drawCard(1);
+            getHand().drawCard(1);
             setDrawn(true);
         }
         else
             showMessage("Unable to draw more than once per turn");
     }
 
-    /* When a card in the hand is clicked, it is highlighted if it meets one of the two qualifying conditions
-     * 1. The player has not drawn a card this round
-     * 2. The player has drawn a card this round, but the card that is clicked is the card that was drawn
-     * If the card that was clicked does not meet either condition, a message is displayed to guide the player
+    //The turn is only passed if the user has drawn a card this round
+    private boolean pass() {
+        if(isDrawn())
+            return true;
+        showMessage("Draw a card to pass");
+        return false;
+    }
+
+    /* Adds a listener to the pass button
+     * Adds a listener to the button of every card in the game, and to the table canvas if the GUI paints one
+     * The buttons are reused by every game, so removeListeners() must be called when the game ends
      */
-    private void cardClicked(ActionEvent e, Hand hand) {
-        for(Card card : hand.cards()) {
-            if(e.getSource() == card) {
-                if(!isDrawn() || card.equals(hand.getLast()))
-                    hand.setSelected(card);
-                else
-                    showMessage("Must select the card that was drawn this round");
-            }
+    void addListeners() {
+        for(CardButton cardButton : gameGUI.getCardButtons()) {
+            cardButton.addActionListener(this);
         }
+        gameGUI.getPass().addActionListener(this);
+        gameGUI.setCardListener(this::cardClicked);
     }
 
-    //The pass button only passes the turn if the user has drawn a card this round
-    private void passClicked() {
-        if(isDrawn()) {
-            played = false;
-            game.countDown();
+    //Removes the listeners added by addListeners()
+    void removeListeners() {
+        for(CardButton cardButton : gameGUI.getCardButtons()) {
+            cardButton.removeActionListener(this);
         }
+        gameGUI.getPass().removeActionListener(this);
+        gameGUI.setCardListener(null);
+    }
+
+    //Clicks made outside of the player's turn are refused by the inbox
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        if(e.getSource() == gameGUI.getPass())
+            inbox.send(PlayerAction.pass());
+        else
+            cardClicked(((CardButton)e.getSource()).getCard());
+    }
+
+    //Called on the Event Dispatch Thread when a card's button or a card painted by the table canvas is clicked
+    private void cardClicked(int card) {
+        if(card == discardPile.getLast())
+            discardClicked();
+        else if(card == drawPile.getLast())
+            inbox.send(PlayerAction.draw());
         else
-            showMessage("Draw a card to pass");
+            selected = card;        //the card is ready to play, the game checks it when it is played
+    }
+
+    //When the discard pile is clicked and there is a selected card, the card is sent to be played
+    private void discardClicked() {
+        if(selected != -1) {
+            inbox.send(PlayerAction.play(selected));
+            selected = -1;
+        }
     }
 
-    //Displays a message to the user
+    //Displays a message to the user, the dialog is shown by the Event Dispatch Thread
     private void showMessage(String text) {
-        JLabel message = new JLabel(text);
-        JOptionPane.showMessageDialog(null, message);
+        EventQueue.invokeLater(() -> {
+            JLabel message = new JLabel(text);
+            JOptionPane.showMessageDialog(null, message);
+        });
     }
 }
\ No newline at end of file
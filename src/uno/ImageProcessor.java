@@ -1,22 +1,96 @@
 /* ImageProcessor.java
  * This class handles images
  * It includes methods that load and rotate images
+ * Loaded images are kept in a cache shared by the whole program, so each image file is only decoded once
+ * Rotated icons are cached the same way, so redisplaying a card does no image processing
  * Additional image processing methods may be added as needed
  */
 
 package uno;
 
 import javax.imageio.ImageIO;
+import javax.swing.*;
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class ImageProcessor {
 
-    //Loads an image from the project's resource folder
+    //Maximum number of images in the cache, enough for every card face, wild color face and icon in the game
+    private static final int CACHE_SIZE = 128;
+
+    /* Decoded images keyed by resource path, in access order
+     * When the cache is full, the least recently used image is removed
+     * Cached images are shared, so they must never be drawn on
+     */
+    private static final Map<String, BufferedImage> cache =
+            new LinkedHashMap<String, BufferedImage>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+    /* Icons of cached images rotated by 0, 90, 180 and 270 degrees, keyed by resource path
+     * The array is indexed by angle / 90, each icon is created the first time it is requested
+     */
+    private static final Map<String, ImageIcon[]> iconCache =
+            new LinkedHashMap<String, ImageIcon[]>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ImageIcon[]> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+    private static long cacheHits;
+    private static long cacheMisses;
+
+    //Returns an image from the project's resource folder, the image is only decoded if it is not in the cache
     public static BufferedImage loadImage(String name) {
+        long start = System.nanoTime();
+        synchronized(cache) {
+            BufferedImage img = cache.get(name);
+            if(img != null) {
+                cacheHits++;
+                Metrics.LOAD_IMAGE.recordSince(start);
+                return img;
+            }
+            cacheMisses++;
+        }
+        BufferedImage img = decodeImage(name);
+        if(img != null) {
+            synchronized(cache) {
+                cache.put(name, img);
+            }
+        }
+        Metrics.LOAD_IMAGE.recordSince(start);
+        return img;
+    }
+
+    /* Returns an icon of an image from the project's resource folder rotated by deg (0, 90, 180 or 270) degrees
+     * The image is only rotated the first time, the same icon is returned for every later call
+     */
+    public static ImageIcon loadIcon(String name, int deg) {
+        ImageIcon[] icons;
+        synchronized(iconCache) {
+            icons = iconCache.get(name);
+            if(icons == null) {
+                icons = new ImageIcon[4];
+                iconCache.put(name, icons);
+            }
+        }
+        int index = deg / 90;
+        synchronized(icons) {
+            if(icons[index] == null)
+                icons[index] = new ImageIcon(rotateImage(loadImage(name), deg));
+            return icons[index];
+        }
+    }
+
+    //Decodes an image from the project's resource folder
+    private static BufferedImage decodeImage(String name) {
         InputStream inputStream = ImageProcessor.class.getResourceAsStream(name);
         BufferedImage img = null;
         try {
@@ -27,12 +101,27 @@ public class ImageProcessor {
         return img;
     }
 
+    //Number of loadImage calls that were answered by the cache
+    public static long getCacheHits() {
+        synchronized(cache) {
+            return cacheHits;
+        }
+    }
+
+    //Number of loadImage calls that had to decode the image
+    public static long getCacheMisses() {
+        synchronized(cache) {
+            return cacheMisses;
+        }
+    }
+
     /* Returns a new rotated image with the degree of rotation set by the parameter "deg"
      * This method was taken from an answer on StackOverFlow (not my own code)
      */
     public static BufferedImage rotateImage(BufferedImage img, double deg) {
         if(deg == 0)
             return img;
+        long start = System.nanoTime();
         double rad = Math.toRadians(deg);
         double sinTheta = Math.abs(Math.sin(rad));
         double cosTheta = Math.abs(Math.cos(rad));
@@ -46,6 +135,7 @@ public class ImageProcessor {
         at.translate(-img.getWidth() / 2, -img.getHeight() / 2);
         AffineTransformOp atop = new AffineTransformOp(at, AffineTransformOp.TYPE_BILINEAR);
         atop.filter(img, rotatedImg);
+        Metrics.ROTATE_IMAGE.recordSince(start);
 
         return rotatedImg;
     }
@@ -0,0 +1,377 @@
+/* Ismcts.java
+ * Information-Set Monte Carlo Tree Search (single observer) for the moves of one player, used by IsmctsPlayer
+ * Every playout deals the cards that the player can't see (the other hands and the draw pile) at random, keeping the
+ * known hand sizes, then plays the determinized game to its end as a headless Game
+ * The tree holds the moves of every player, a move is selected with UCB1 among the moves that are legal in the
+ * current determinization (the number of times a move was legal is its availability), the first move that is not in
+ * the tree is added and the rest of the game is played out at random
+ * Moves are encoded as ints: DRAW, PASS, or a card's kind << 3 | the picked color (CardColor ordinal + 1, 0 if none)
+ * Identical cards (two red 5s) share the same kind (see Card.getKind()), so they are the same move
+ * Usage: java uno.Ismcts [games] [budget budget ...], plays each budget (see Tournament.strategy()) against a CPUPlayer
+ */
+
+package uno;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+final class Ismcts {
+
+    static final int DRAW = -1;
+    static final int PASS = -2;
+    static final int MAX_MOVES = 4 * Card.KIND_COUNT + 1;   //every kind of card in every color, and DRAW or PASS
+
+    private static final double EXPLORATION = 0.7;
+    private static final int TURN_LIMIT = 1000;     //playouts that don't end within this many turns are a loss
+
+    static final LongAdder PLAYOUTS = new LongAdder();      //playouts run by every search
+    static final LongAdder SEARCH_NANOS = new LongAdder();  //time spent by the searches, added up over their threads
+
+    //State of the game as seen by the searching player when the search starts
+    static final class Root {
+
+        final int seat;                 //index of the searching player, who has the current turn
+        final int decks;
+        final int[] handSizes;
+        final short[] hand;             //searching player's cards
+        final short[] discards;         //discard pile, bottom to top
+        final CardColor wildColor;
+        final Direction direction;
+        final boolean drawn;            //whether the searching player has drawn a card this turn
+        final short[] unknown;          //cards the searching player can't see
+
+        Root(Game game, int seat) {
+            this.seat = seat;
+            decks = game.getDrawPile().getDecks();
+            Player[] players = game.getPlayers();
+            handSizes = new int[players.length];
+            for(int i = 0; i < players.length; i++) {
+                handSizes[i] = players[i].getHand().getLength();
+            }
+            hand = copy(players[seat].getHand());
+            DiscardPile discardPile = game.getDiscardPile();
+            discards = copy(discardPile);
+            wildColor = discardPile.getWildColor();
+            direction = game.getDirection();
+            drawn = players[seat].isDrawn();
+            boolean[] seen = new boolean[decks * Card.DECK_SIZE];
+            for(short card : hand) {
+                seen[card] = true;
+            }
+            for(short card : discards) {
+                seen[card] = true;
+            }
+            unknown = new short[seen.length - hand.length - discards.length];
+            int count = 0;
+            for(int card = 0; card < seen.length; card++) {
+                if(!seen[card])
+                    unknown[count++] = (short) card;
+            }
+        }
+
+        private static short[] copy(Deck deck) {
+            short[] cards = new short[deck.getLength()];
+            for(int i = 0; i < cards.length; i++) {
+                cards[i] = (short) deck.get(i);
+            }
+            return cards;
+        }
+    }
+
+    //Node of the tree, reached by a move of the player at index seat
+    static final class Node {
+
+        final Node parent;
+        final int seat;                 //-1 for the root
+        final int move;
+        final ArrayList<Node> children;
+        int visits;
+        int availability;               //number of visits of the parent where this move was legal
+        int wins;                       //playouts won by the player that made the move
+
+        Node(Node parent, int seat, int move) {
+            this.parent = parent;
+            this.seat = seat;
+            this.move = move;
+            children = new ArrayList<>(4);
+        }
+    }
+
+    private final Root root;
+    private final SplittableRandom random;
+    private final Node tree;
+    private final PlayerFactory[] seats;
+    private final short[] deal;                 //unknown cards, shuffled for every determinization
+    private final short[][] hands;
+    private final int[] moves;                  //legal moves of the player choosing a move
+    private final int[] untried;
+    private Node node;                          //last node reached by the current playout
+    private boolean inTree;                     //false once the current playout left the tree
+    private int playouts;
+
+    Ismcts(Root root, SplittableRandom random) {
+        this.root = root;
+        this.random = random;
+        tree = new Node(null, -1, 0);
+        seats = new PlayerFactory[root.handSizes.length];
+        for(int i = 0; i < seats.length; i++) {
+            seats[i] = (hand, discardPile, playerRandom) -> new SearchPlayer(hand, discardPile, this);
+        }
+        deal = root.unknown.clone();
+        hands = new short[seats.length][root.decks * Card.DECK_SIZE];
+        moves = new int[MAX_MOVES];
+        untried = new int[MAX_MOVES];
+    }
+
+    public static void main(String [] args) {
+        System.setProperty("java.awt.headless", "true");
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        String[] budgets = args.length > 1 ? new String[args.length - 1] : new String[] {"10", "100", "1000"};
+        System.arraycopy(args, 1, budgets, 0, args.length > 1 ? budgets.length : 0);
+        int cores = Runtime.getRuntime().availableProcessors();
+        long seed = Randomness.newSeed();
+        System.out.printf("Games: %d per budget, seed: %d, ISMCTS versus CPUPlayer, 2 players%n", games, seed);
+        System.out.println("Budget  win rate           playouts/s (per thread)");
+        for(String budget : budgets) {
+            PLAYOUTS.reset();
+            SEARCH_NANOS.reset();
+            Tournament tournament = new Tournament(new String[] {"ismcts:" + budget, "cpu"}, seed, false);
+            Tournament.Results results = tournament.play(games, cores);
+            double p = (double) results.wins[0] / results.games;
+            double margin = 1.96 * Math.sqrt(p * (1 - p) / results.games);
+            System.out.printf("%-7s %6.2f%% +/- %5.2f%%  %.0f%n", budget, 100 * p, 100 * margin,
+                    PLAYOUTS.sum() / (SEARCH_NANOS.sum() / 1e9));
+        }
+    }
+
+    /* Runs playouts until the budget is spent: playouts (0 for no limit) or deadline (System.nanoTime(), 0 for none)
+     * Returns the root of the tree, whose children are the searching player's moves
+     */
+    Node search(int playoutBudget, long deadline) {
+        long start = System.nanoTime();
+        while((playoutBudget == 0 || playouts < playoutBudget) && (deadline == 0 || System.nanoTime() < deadline)) {
+            playout();
+            playouts++;
+        }
+        PLAYOUTS.add(playouts);
+        SEARCH_NANOS.add(System.nanoTime() - start);
+        return tree;
+    }
+
+    //Plays one determinized game to its end and adds the result to the nodes it went through
+    private void playout() {
+        Game game = determinize();
+        node = tree;
+        inTree = true;
+        for(int turns = 0; game.isRunning() && turns < TURN_LIMIT; turns++) {
+            game.playTurn();
+        }
+        int winner = game.isRunning() ? -1 : game.getWinner();
+        for(Node n = node; n != null; n = n.parent) {
+            n.visits++;
+            if(n.seat == winner)
+                n.wins++;
+        }
+    }
+
+    //Deals the unknown cards at random and sets up a game in the state of the root
+    private Game determinize() {
+        for(int i = deal.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            short card = deal[i];
+            deal[i] = deal[j];
+            deal[j] = card;
+        }
+        Game game = Game.headless(seats.length, root.decks, random.nextLong());
+        int next = 0;
+        for(int i = 0; i < seats.length; i++) {
+            if(i == root.seat)
+                System.arraycopy(root.hand, 0, hands[i], 0, root.hand.length);
+            else {
+                System.arraycopy(deal, next, hands[i], 0, root.handSizes[i]);
+                next += root.handSizes[i];
+            }
+        }
+        DrawPile drawPile = game.getDrawPile();
+        for(int i = next; i < deal.length; i++) {
+            drawPile.addCard(deal[i]);
+        }
+        DiscardPile discardPile = game.getDiscardPile();
+        for(short card : root.discards) {
+            discardPile.addCard(card);
+        }
+        discardPile.setWildColor(root.wildColor);
+        game.resume(seats, hands, root.handSizes, root.seat, root.direction);
+        game.getPlayers()[root.seat].setDrawn(root.drawn);
+        return game;
+    }
+
+    //Chooses the move of the player at index seat, from the tree while the playout is in it, then at random
+    int choose(int seat, Hand hand, boolean drawn) {
+        int count = legalMoves(hand, drawn, moves);
+        if(!inTree)
+            return randomMove(hand, count);
+        int untriedCount = 0;
+        for(int i = 0; i < count; i++) {
+            Node child = child(seat, moves[i]);
+            if(child == null)
+                untried[untriedCount++] = moves[i];
+            else
+                child.availability++;
+        }
+        if(untriedCount > 0) {
+            Node child = new Node(node, seat, untried[random.nextInt(untriedCount)]);
+            node.children.add(child);
+            node = child;
+            inTree = false;
+            return child.move;
+        }
+        Node best = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < count; i++) {
+            Node child = child(seat, moves[i]);
+            double score = (double) child.wins / child.visits +
+                    EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+            if(score > bestScore) {
+                bestScore = score;
+                best = child;
+            }
+        }
+        node = best;
+        return best.move;
+    }
+
+    private Node child(int seat, int move) {
+        for(Node child : node.children) {
+            if(child.seat == seat && child.move == move)
+                return child;
+        }
+        return null;
+    }
+
+    /* Plays a random card like a CPUPlayer, passing only when the drawn card is not playable
+     * Every playable kind is as likely: a wild card is listed once per color, so only its first color (color bits 1)
+     * is picked from, then the card takes the abundant color
+     */
+    private int randomMove(Hand hand, int count) {
+        int plays = moves[count - 1] < 0 ? count - 1 : count;
+        if(plays == 0)
+            return moves[count - 1];
+        int kinds = 0;
+        for(int i = 0; i < plays; i++) {
+            if((moves[i] & 7) <= 1)
+                kinds++;
+        }
+        int rank = random.nextInt(kinds);
+        int i = 0;
+        while((moves[i] & 7) > 1 || rank-- != 0) {
+            i++;
+        }
+        int move = moves[i];
+        if((move & 7) != 0)
+            move = (move & ~7) | CPUPlayer.abundantColor(hand).ordinal() + 1;
+        return move;
+    }
+
+    /* Fills moves with the moves of a hand that are searched and returns their number
+     * A card is only drawn when no card is playable (like a CPUPlayer), drawing with a playable card is legal but
+     * almost never better, and leaving it out keeps the tree narrow
+     * Once a card was drawn, only the drawn card may be played, or the turn is passed
+     */
+    static int legalMoves(Hand hand, boolean drawn, int[] moves) {
+        int count = 0;
+        if(!drawn) {
+            for(int i = 0; i < hand.getLength(); i++) {
+                int card = hand.get(i);
+                if(hand.isPlayable(card) && !contains(moves, count, Card.getKind(card) << 3, card))
+                    count = addPlays(card, moves, count);
+            }
+            if(count == 0)
+                moves[count++] = DRAW;
+        }
+        else {
+            int card = hand.getLast();
+            if(card != -1 && hand.isPlayable(card))
+                count = addPlays(card, moves, count);
+            moves[count++] = PASS;
+        }
+        return count;
+    }
+
+    //Checks if a card with the same kind was already added, wild cards are added with each color
+    private static boolean contains(int[] moves, int count, int kind, int card) {
+        int move = Card.getCardColor(card) == CardColor.WILD ? kind | 1 : kind;
+        for(int i = 0; i < count; i++) {
+            if(moves[i] == move)
+                return true;
+        }
+        return false;
+    }
+
+    private static int addPlays(int card, int[] moves, int count) {
+        int kind = Card.getKind(card) << 3;
+        if(Card.getCardColor(card) == CardColor.WILD) {
+            for(int color = 0; color < 4; color++) {
+                moves[count++] = kind | color + 1;
+            }
+        }
+        else
+            moves[count++] = kind;
+        return count;
+    }
+
+    //Returns a card of the hand with the move's kind, -1 if there is none
+    static int cardOf(Hand hand, int move) {
+        return hand.findKind(move >>> 3);
+    }
+
+    //Returns the color picked by a move, null if the move doesn't pick one
+    static CardColor colorOf(int move) {
+        return (move & 7) == 0 ? null : CardColor.values()[(move & 7) - 1];
+    }
+
+    //Player of a determinized game, every move is chosen by the search
+    private static final class SearchPlayer extends Player {
+
+        private final Ismcts search;
+        private int index;
+        private CardColor color;        //color picked with the last move, null if none
+
+        SearchPlayer(Hand hand, DiscardPile discardPile, Ismcts search) {
+            super(hand, discardPile);
+            this.search = search;
+            AI = true;
+        }
+
+        @Override
+        void seat(Game game, int index) {
+            this.index = index;
+        }
+
+        @Override
+        public boolean play() {
+            Hand hand = getHand();
+            while(true) {
+                int move = search.choose(index, hand, isDrawn());
+                if(move == DRAW) {
+                    hand.drawCard(1);
+                    setDrawn(true);
+                }
+                else if(move == PASS)
+                    return false;
+                else {
+                    color = colorOf(move);
+                    hand.playCard(cardOf(hand, move));
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void pickColor() {
+            discardPile.setWildColor(color != null ? color : CPUPlayer.abundantColor(getHand()));
+            color = null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/* IsmctsPlayer.java
+ * Represents an AI player that searches for its moves with Information-Set Monte Carlo Tree Search (see Ismcts)
+ * Every move is searched within a budget: a number of playouts, a time limit, or both
+ * With more than one thread, each thread grows its own tree from the same state (root parallelism) and the visits
+ * of the moves at the roots are added up, the most visited move is made
+ */
+
+package uno;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+public class IsmctsPlayer extends Player {
+
+    private SplittableRandom random;
+    private final int playouts;             //playouts per move, 0 for no limit
+    private final long millis;              //time per move in milliseconds, 0 for no limit
+    private final int threads;
+    private final int[] moves;
+    private Game game;
+    private int index;
+    private CardColor color;                //color picked with the last move
+
+    IsmctsPlayer(Hand hand, DiscardPile discardPile, SplittableRandom random, int playouts, long millis, int threads) {
+        super(hand, discardPile);
+        if(playouts == 0 && millis == 0)
+            throw new IllegalArgumentException("An ISMCTS player needs a playout or time budget");
+        this.random = random;
+        this.playouts = playouts;
+        this.millis = millis;
+        this.threads = threads;
+        moves = new int[Ismcts.MAX_MOVES];
+        AI = true;
+    }
+
+    @Override
+    void seat(Game game, int index) {
+        this.game = game;
+        this.index = index;
+    }
+
+    @Override
+    void reseed(SplittableRandom random) {
+        this.random = random;
+    }
+
+    //Searches every decision of the turn: playing, drawing, and playing the drawn card or passing
+    @Override
+    public boolean play() {
+        Hand hand = getHand();
+        while(true) {
+            int move = chooseMove();
+            if(move == Ismcts.DRAW) {
+                hand.drawCard(1);
+                setDrawn(true);
+            }
+            else if(move == Ismcts.PASS)
+                return false;
+            else {
+                color = Ismcts.colorOf(move);
+                hand.playCard(Ismcts.cardOf(getHand(), move));
+                return true;
+            }
+        }
+    }
+
+    //The color is searched with the wild card, a wild card flipped at the start of the game takes the abundant color
+    @Override
+    public void pickColor() {
+        discardPile.setWildColor(color != null ? color : CPUPlayer.abundantColor(getHand()));
+        color = null;
+    }
+
+    //Returns the most visited move at the roots of the searches, moves that are the only legal move are not searched
+    private int chooseMove() {
+        if(Ismcts.legalMoves(getHand(), isDrawn(), moves) == 1)
+            return moves[0];
+        Ismcts.Root root = new Ismcts.Root(game, index);
+        long deadline = millis == 0 ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        int searches = playouts == 0 ? threads : Math.min(threads, playouts);     //a search runs at least one playout
+        List<CompletableFuture<Ismcts.Node>> helpers = new ArrayList<>(searches - 1);
+        for(int i = 1; i < searches; i++) {
+            Ismcts search = new Ismcts(root, random.split());
+            int budget = share(i, searches);
+            helpers.add(CompletableFuture.supplyAsync(() -> search.search(budget, deadline),
+                    ForkJoinPool.commonPool()));
+        }
+        Map<Integer, Integer> visits = new HashMap<>();
+        addVisits(new Ismcts(root, random.split()).search(share(0, searches), deadline), visits);
+        for(CompletableFuture<Ismcts.Node> helper : helpers) {
+            addVisits(helper.join(), visits);
+        }
+        int best = moves[0];
+        int bestVisits = -1;
+        for(Map.Entry<Integer, Integer> entry : visits.entrySet()) {
+            if(entry.getValue() > bestVisits) {
+                bestVisits = entry.getValue();
+                best = entry.getKey();
+            }
+        }
+        return best;
+    }
+
+    //Playouts run by the given search, the budget is split evenly between the searches and adds up to it exactly
+    private int share(int search, int searches) {
+        if(playouts == 0)
+            return 0;
+        return playouts / searches + (search < playouts % searches ? 1 : 0);
+    }
+
+    private static void addVisits(Ismcts.Node tree, Map<Integer, Integer> visits) {
+        for(Ismcts.Node child : tree.children) {
+            visits.merge(child.move, child.visits, Integer::sum);
+        }
+    }
+}
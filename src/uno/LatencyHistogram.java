@@ -0,0 +1,130 @@
+/* LatencyHistogram.java
+ * Counts durations in nanoseconds in log-linear buckets: every power of two is split into 8 buckets, so a
+ * percentile is known to within 12.5% while the whole range of a long fits in under 500 counters
+ * Recording is lock-free and allocation free (a bucket lookup and three atomic updates), so it can be left on in
+ * production, readers get percentiles from the buckets without stopping the writers
+ */
+
+package uno;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class LatencyHistogram implements LatencyHistogramMBean {
+
+    private static final int SUB_BITS = 3;                  //log2 of the buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB_BUCKETS;      //values below this have a bucket each
+    private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+    private final String name;
+    private final AtomicLongArray buckets;
+    private final AtomicLong total;                         //sum of the durations, for the mean
+    private final AtomicLong max;
+
+    LatencyHistogram(String name) {
+        this.name = name;
+        buckets = new AtomicLongArray(BUCKETS);
+        total = new AtomicLong();
+        max = new AtomicLong();
+    }
+
+    //Records the time elapsed since start, a System.nanoTime() reading
+    void recordSince(long start) {
+        record(System.nanoTime() - start);
+    }
+
+    void record(long nanos) {
+        if(nanos < 0)
+            nanos = 0;
+        buckets.incrementAndGet(bucketOf(nanos));
+        total.addAndGet(nanos);
+        long current;
+        while(nanos > (current = max.get()) && !max.compareAndSet(current, nanos)) {
+            //another thread raised the max meanwhile, try again
+        }
+    }
+
+    //Index of the bucket of a duration: the highest bit gives the power of two, the next SUB_BITS bits the bucket
+    private static int bucketOf(long nanos) {
+        if(nanos < LINEAR)
+            return (int) nanos;
+        int high = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (high - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (high - SUB_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    //Largest duration that falls in a bucket
+    private static long upperBound(int bucket) {
+        if(bucket < LINEAR)
+            return bucket;
+        int high = (bucket - LINEAR) / SUB_BUCKETS + SUB_BITS + 1;
+        int sub = (bucket - LINEAR) % SUB_BUCKETS;
+        long width = 1L << (high - SUB_BITS);
+        return (SUB_BUCKETS + sub) * width + width - 1;
+    }
+
+    //Duration in nanoseconds that the given fraction of the recorded durations don't exceed
+    long percentile(double fraction) {
+        long count = getCount();
+        if(count == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if(seen >= rank)
+                return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        long count = 0;
+        for(int i = 0; i < BUCKETS; i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long count = getCount();
+        return count == 0 ? 0 : total.get() / 1e3 / count;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return percentile(0.5) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return percentile(0.99) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return max.get() / 1e3;
+    }
+
+    @Override
+    public void reset() {
+        for(int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        total.set(0);
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-13s count %8d  mean %9.1f us  p50 %9.1f us  p99 %9.1f us  max %9.1f us", name,
+                getCount(), getMeanMicros(), getP50Micros(), getP99Micros(), getMaxMicros());
+    }
+}
@@ -0,0 +1,22 @@
+/* LatencyHistogramMBean.java
+ * Management interface of a LatencyHistogram, registered with the platform MBean server by Metrics
+ * Times are in microseconds, percentiles are accurate to about 12% (see LatencyHistogram)
+ */
+
+package uno;
+
+public interface LatencyHistogramMBean {
+
+    long getCount();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getMaxMicros();
+
+    //Clears the histogram, so the next readings only cover what happens from now on
+    void reset();
+}
@@ -0,0 +1,89 @@
+/* Lockstep.java
+ * Plays many headless games of bots side by side, one turn of every game per step, so that each strategy decides
+ * for all of its games in a single batched call (see Strategy.decide(BotView[], int, int[]))
+ * Seat s of every game is played by strategies[s]: at each step the views of the players to move are grouped by
+ * seat, each strategy decides for its group at once, then every game plays its turn with the decision it was given
+ * Only the first decision of a turn is batched, the decision after drawing a card is made on its own
+ * Game i is dealt with the seed Randomness.seedOf(seed, i), like a Tournament's games, but the bots' random streams
+ * are the strategies' own instead of being split from each game, so the moves differ from those of a Tournament
+ */
+
+package uno;
+
+import java.util.Arrays;
+
+final class Lockstep {
+
+    private final Game[] games;
+    private final Strategy[] strategies;    //strategy of each seat, shared by every game
+    private final int turnLimit;            //games that don't end within this many turns are stopped, 0 for no limit
+    private final boolean[] running;
+    private final BotView[][] views;        //views of the players to move, grouped by seat
+    private final BotPlayer[][] movers;     //players to move, grouped by seat like views
+    private final int[] counts;             //number of players to move at each seat
+    private final int[] decisions;
+
+    //Deals the games from first (inclusive) to end (exclusive) of the series of games of the given seed
+    Lockstep(Strategy[] strategies, long seed, int first, int end, int turnLimit) {
+        this.strategies = strategies;
+        this.turnLimit = turnLimit;
+        int players = strategies.length;
+        PlayerFactory[] seats = new PlayerFactory[players];
+        for(int i = 0; i < players; i++) {
+            Strategy strategy = strategies[i];
+            seats[i] = (hand, discardPile, random) -> new BotPlayer(hand, discardPile, strategy);
+        }
+        games = new Game[end - first];
+        running = new boolean[games.length];
+        for(int i = 0; i < games.length; i++) {
+            games[i] = Game.headless(players, Randomness.seedOf(seed, first + i));
+            games[i].start(seats);
+            running[i] = true;
+        }
+        views = new BotView[players][games.length];
+        movers = new BotPlayer[players][games.length];
+        counts = new int[players];
+        decisions = new int[games.length];
+    }
+
+    //Plays every game to its end or to the turn limit
+    void play() {
+        while(step() != 0);
+    }
+
+    //Plays a turn of every game that is still running, returns the number of games left running
+    int step() {
+        Arrays.fill(counts, 0);
+        for(int i = 0; i < games.length; i++) {
+            if(running[i]) {
+                int seat = games[i].getCurrentTurn();
+                BotPlayer player = (BotPlayer) games[i].getPlayers()[seat];
+                views[seat][counts[seat]] = player.view();
+                movers[seat][counts[seat]++] = player;
+            }
+        }
+        for(int seat = 0; seat < strategies.length; seat++) {
+            if(counts[seat] != 0) {
+                strategies[seat].decide(views[seat], counts[seat], decisions);
+                for(int i = 0; i < counts[seat]; i++) {
+                    movers[seat][i].setDecision(decisions[i]);
+                    views[seat][i] = null;
+                }
+            }
+        }
+        int left = 0;
+        for(int i = 0; i < games.length; i++) {
+            if(running[i]) {
+                games[i].playTurn();
+                running[i] = games[i].isRunning() && (turnLimit == 0 || games[i].getTurns() < turnLimit);
+                if(running[i])
+                    left++;
+            }
+        }
+        return left;
+    }
+
+    Game[] getGames() {
+        return games;
+    }
+}
@@ -0,0 +1,97 @@
+/* Metrics.java
+ * Latency histograms of the parts of the desktop game where time goes: the user's actions (from the click to the
+ * game being done with the action, see ActionInbox), CPU turns, rendering (and the layout and painting of each frame
+ * that follows), image loading and rotation, and audio (decoding the effects and the delay between play() and the
+ * mixer picking a sound up)
+ * The histograms always record, register() exposes them as MBeans (uno:type=Latency,name=...) for JConsole or any
+ * JMX client, and startDump() prints them at a fixed interval along with the image cache counters
+ * The render counters of the GUI's RenderScheduler are registered and printed the same way once the GUI exists
+ */
+
+package uno;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+final class Metrics {
+
+    static final LatencyHistogram INPUT = new LatencyHistogram("input");
+    static final LatencyHistogram CPU_TURN = new LatencyHistogram("turn.cpu");
+    static final LatencyHistogram RENDER = new LatencyHistogram("render");
+    static final LatencyHistogram LAYOUT = new LatencyHistogram("frame.layout");
+    static final LatencyHistogram PAINT = new LatencyHistogram("frame.paint");
+    static final LatencyHistogram LOAD_IMAGE = new LatencyHistogram("image.load");
+    static final LatencyHistogram ROTATE_IMAGE = new LatencyHistogram("image.rotate");
+    static final LatencyHistogram AUDIO_LOAD = new LatencyHistogram("audio.load");
+    static final LatencyHistogram AUDIO_PLAY = new LatencyHistogram("audio.play");
+    private static final LatencyHistogram[] ALL = {INPUT, CPU_TURN, RENDER, LAYOUT, PAINT, LOAD_IMAGE,
+            ROTATE_IMAGE, AUDIO_LOAD, AUDIO_PLAY};
+
+    private static boolean registered;
+    private static volatile RenderScheduler renderScheduler;        //null until the GUI is created
+
+    private Metrics() {}
+
+    //Registers every histogram with the platform MBean server, later calls do nothing
+    static synchronized void register() {
+        if(registered)
+            return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for(LatencyHistogram histogram : ALL) {
+                server.registerMBean(histogram, new ObjectName("uno:type=Latency,name=" + histogram.getName()));
+            }
+            registered = true;
+        } catch(JMException e) {
+            System.err.println("Metrics are not available over JMX: " + e);
+        }
+        if(renderScheduler != null)
+            registerRenderScheduler();
+    }
+
+    //Adds the render counters of the GUI, which are registered along with the histograms
+    static synchronized void register(RenderScheduler scheduler) {
+        renderScheduler = scheduler;
+        if(registered)
+            registerRenderScheduler();
+    }
+
+    private static void registerRenderScheduler() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(renderScheduler,
+                    new ObjectName("uno:type=Render"));
+        } catch(JMException e) {
+            System.err.println("Render counters are not available over JMX: " + e);
+        }
+    }
+
+    //Prints the histograms every given number of seconds on a daemon thread
+    static void startDump(long seconds, PrintStream out) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> out.print(dump()), seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    //Every histogram on a line, then the render and image cache counters
+    static String dump() {
+        StringBuilder builder = new StringBuilder();
+        for(LatencyHistogram histogram : ALL) {
+            builder.append(histogram).append(System.lineSeparator());
+        }
+        RenderScheduler scheduler = renderScheduler;
+        if(scheduler != null)
+            builder.append(scheduler).append(System.lineSeparator());
+        builder.append(String.format("image cache   hits %d  misses %d%n", ImageProcessor.getCacheHits(),
+                ImageProcessor.getCacheMisses()));
+        return builder.toString();
+    }
+}
@@ -5,6 +5,8 @@
 
 package uno;
 
+import java.util.SplittableRandom;
+
 public abstract class Player {
 
     protected Hand hand;
@@ -24,6 +26,14 @@ public abstract class Player {
     //picks a color for a wild card
     public abstract void pickColor();
 
+    /* Called once the player is created with the game and the player's index in it
+     * Players that need more than their hand and the discard pile (like the size of the other hands) keep the game
+     */
+    void seat(Game game, int index) {}
+
+    //Replaces the player's random stream when the game restarts its streams (see Game.reseed()), if it has one
+    void reseed(SplittableRandom random) {}
+
     public Hand getHand() {
         return hand;
     }
@@ -0,0 +1,61 @@
+/* PlayerAction.java
+ * An action of the user (a click on the GUI) sent from the Event Dispatch Thread to the game thread
+ * Actions are immutable and remember when they were made, to measure how long the game takes to resolve them
+ */
+
+package uno;
+
+public final class PlayerAction {
+
+    private final ActionType type;
+    private final int value;            //number of players for MODE, card for PLAY, 0 otherwise
+    private final CardColor color;      //picked color for COLOR, null otherwise
+    private final long time;            //System.nanoTime() when the action was made
+
+    private PlayerAction(ActionType type, int value, CardColor color) {
+        this.type = type;
+        this.value = value;
+        this.color = color;
+        time = System.nanoTime();
+    }
+
+    static PlayerAction mode(int players) {
+        return new PlayerAction(ActionType.MODE, players, null);
+    }
+
+    static PlayerAction play(int card) {
+        return new PlayerAction(ActionType.PLAY, card, null);
+    }
+
+    static PlayerAction draw() {
+        return new PlayerAction(ActionType.DRAW, 0, null);
+    }
+
+    static PlayerAction pass() {
+        return new PlayerAction(ActionType.PASS, 0, null);
+    }
+
+    static PlayerAction color(CardColor color) {
+        return new PlayerAction(ActionType.COLOR, 0, color);
+    }
+
+    ActionType getType() {
+        return type;
+    }
+
+    int getPlayers() {
+        return value;
+    }
+
+    int getCard() {
+        return value;
+    }
+
+    CardColor getColor() {
+        return color;
+    }
+
+    long getTime() {
+        return time;
+    }
+}
@@ -0,0 +1,14 @@
+/* PlayerFactory.java
+ * Creates the player that takes a seat in a headless game
+ * Used by simulations and tournaments to choose which kind of player plays in each seat
+ * random is the player's own stream, split from the game's generator
+ */
+
+package uno;
+
+import java.util.SplittableRandom;
+
+interface PlayerFactory {
+
+    Player create(Hand hand, DiscardPile discardPile, SplittableRandom random);
+}
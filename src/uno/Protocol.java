@@ -0,0 +1,116 @@
+/* Protocol.java
+ * Binary protocol spoken between GameServer and its clients (see HeadlessClient) over TCP
+ * Every message is a frame: length (2 bytes, the number of bytes that follow), type (1 byte) and the payload
+ * Cards are sent as their ids (2 bytes, large tables combine decks), colors as CardColor ordinals (NONE if there is
+ * none), players as indices (1 byte)
+ *
+ * Client to server:
+ * JOIN     players, humans         asks for a seat at a table of players seats, humans of them played by clients
+ * PLAY     card, color             plays a card, the color is only used by wild cards
+ * DRAW                             draws a card
+ * PASS                             ends the turn after drawing a card
+ *
+ * Server to client:
+ * SEATED   table (4), seat, players    the client plays the given seat of the table
+ * TURN     discard, color, direction, drawn, hand sizes (2 bytes, one per player), cards of the client's hand
+ *                                  it is the client's turn, the client answers with PLAY, DRAW or PASS
+ *                                  a move that is not legal is dropped and TURN is sent again
+ * GAME_OVER winner                 the game ended (NONE if nobody won), the next game starts right away
+ */
+
+package uno;
+
+import java.nio.ByteBuffer;
+
+final class Protocol {
+
+    static final int JOIN = 1;
+    static final int PLAY = 2;
+    static final int DRAW = 3;
+    static final int PASS = 4;
+    static final int SEATED = 16;
+    static final int TURN = 17;
+    static final int GAME_OVER = 18;
+
+    static final int NONE = 0xff;
+    static final int HEADER_SIZE = 3;           //length and type
+    static final int MAX_FRAME = HEADER_SIZE + 5 + 2 * Game.MAX_PLAYERS + 2 * Card.MAX_CARDS;    //largest TURN frame
+
+    private Protocol() {}
+
+    //Starts a frame of the given type, the length is written by end()
+    static int begin(ByteBuffer out, int type) {
+        int start = out.position();
+        out.putShort((short) 0);
+        out.put((byte) type);
+        return start;
+    }
+
+    //Writes the length of the frame that was started at the given position
+    static void end(ByteBuffer out, int start) {
+        out.putShort(start, (short) (out.position() - start - 2));
+    }
+
+    static void join(ByteBuffer out, int players, int humans) {
+        int start = begin(out, JOIN);
+        out.put((byte) players);
+        out.put((byte) humans);
+        end(out, start);
+    }
+
+    static void play(ByteBuffer out, int card, CardColor color) {
+        int start = begin(out, PLAY);
+        out.putShort((short) card);
+        out.put((byte) (color == null ? NONE : color.ordinal()));
+        end(out, start);
+    }
+
+    static void draw(ByteBuffer out) {
+        end(out, begin(out, DRAW));
+    }
+
+    static void pass(ByteBuffer out) {
+        end(out, begin(out, PASS));
+    }
+
+    static void seated(ByteBuffer out, int table, int seat, int players) {
+        int start = begin(out, SEATED);
+        out.putInt(table);
+        out.put((byte) seat);
+        out.put((byte) players);
+        end(out, start);
+    }
+
+    //Describes the table as seen by the given seat, may only be called by the table's listener
+    static void turn(ByteBuffer out, Table table, int seat) {
+        int start = begin(out, TURN);
+        DiscardPile discardPile = table.getDiscardPile();
+        out.putShort((short) discardPile.getLast());
+        CardColor color = discardPile.getColor();
+        out.put((byte) (color == null ? NONE : color.ordinal()));
+        out.put((byte) table.getDirection().ordinal());
+        out.put((byte) (table.isDrawn(seat) ? 1 : 0));
+        for(int i = 0; i < table.getPlayerCount(); i++) {
+            out.putShort((short) table.getHand(i).getLength());
+        }
+        Hand hand = table.getHand(seat);
+        for(int i = 0; i < hand.getLength(); i++) {
+            out.putShort((short) hand.get(i));
+        }
+        end(out, start);
+    }
+
+    static void gameOver(ByteBuffer out, int winner) {
+        int start = begin(out, GAME_OVER);
+        out.put((byte) (winner == -1 ? NONE : winner));
+        end(out, start);
+    }
+
+    //Returns the length of the complete frame at the start of the buffer (being read), -1 if it is not complete
+    static int frameLength(ByteBuffer in) {
+        if(in.remaining() < 2)
+            return -1;
+        int length = 2 + (in.getShort(in.position()) & 0xffff);
+        return in.remaining() >= length ? length : -1;
+    }
+}
@@ -0,0 +1,30 @@
+/* Randomness.java
+ * Seeds for the games' random number generators
+ * Every game draws all of its random numbers from a SplittableRandom created from the game's seed, so a game can be
+ * reproduced exactly from its seed, and games running on different threads never share a generator
+ */
+
+package uno;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class Randomness {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;     //spreads consecutive indices apart
+
+    private Randomness() {}
+
+    //Returns a seed for a game that was not given one
+    static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /* Returns the seed of the game at the given index in a series of games (a simulation or a tournament)
+     * The seed only depends on the series' seed and the index, so any game of a series can be replayed on its own,
+     * no matter which thread played it or in which order
+     */
+    static long seedOf(long seriesSeed, long index) {
+        return new SplittableRandom(seriesSeed + index * GOLDEN_GAMMA).nextLong();
+    }
+}
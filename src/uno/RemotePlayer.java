@@ -0,0 +1,45 @@
+/* RemotePlayer.java
+ * Represents a player whose moves are sent to a Table by a client instead of being decided by the game
+ * The table only plays this player's turn once the client's move has been checked, so play() never waits
+ */
+
+package uno;
+
+public class RemotePlayer extends Player {
+
+    private int move;                   //card to play this turn, -1 to pass
+    private CardColor color;            //color picked for a wild card, null to let the game pick
+
+    RemotePlayer(Hand hand, DiscardPile discardPile) {
+        super(hand, discardPile);
+        move = -1;
+        AI = false;
+    }
+
+    //Sets the move that is made by the next call to play()
+    void setMove(int card, CardColor color) {
+        move = card;
+        this.color = color;
+    }
+
+    @Override
+    public boolean play() {
+        if(move == -1)
+            return false;
+        getHand().playCard(move);
+        return true;
+    }
+
+    /* Sets the color that was sent with the move
+     * A wild card flipped at the start of the game (or after a reshuffle) is not the result of a move,
+     * in that case the color that exists most in the hand is picked
+     */
+    @Override
+    public void pickColor() {
+        if(color != null)
+            discardPile.setWildColor(color);
+        else
+            discardPile.setWildColor(CPUPlayer.abundantColor(getHand()));
+        color = null;
+    }
+}
@@ -0,0 +1,97 @@
+/* RenderScheduler.java
+ * The single way to re-render the desktop game: any thread may request a render at any time, and every request made
+ * before the next frame is merged into that frame, so the game renders at most once per frame however many times
+ * a turn asks for it
+ * Frames are at least 1 / maxFps seconds apart. A request made after a frame is due renders on the Event Dispatch
+ * Thread right away, an earlier one waits on a single-shot Swing timer for the frame to be due
+ * The number of requests and of frames rendered are exposed over JMX (uno:type=Render, see Metrics)
+ */
+
+package uno;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class RenderScheduler implements RenderSchedulerMBean {
+
+    static final int DEFAULT_FPS = 60;
+
+    private final Runnable render;          //renders a frame, called on the Event Dispatch Thread
+    private final int maxFps;
+    private final long frameNanos;          //shortest time between the start of two frames
+    private final AtomicBoolean pending;    //true from the first request after a frame until the next frame starts
+    private final AtomicLong requested;
+    private final AtomicLong performed;
+    private long lastFrame;                 //System.nanoTime() when the last frame started, only used on the EDT
+    private final Timer timer;              //delays a frame until it is due
+
+    RenderScheduler(Runnable render, int maxFps) {
+        if(maxFps < 1)
+            throw new IllegalArgumentException("Frame rate must be at least 1");
+        this.render = render;
+        this.maxFps = maxFps;
+        frameNanos = TimeUnit.SECONDS.toNanos(1) / maxFps;
+        pending = new AtomicBoolean();
+        requested = new AtomicLong();
+        performed = new AtomicLong();
+        lastFrame = System.nanoTime() - frameNanos;
+        timer = new Timer(0, e -> frame());
+        timer.setRepeats(false);
+    }
+
+    //Asks for a frame, only the first request since the last frame schedules one, the others are merged into it
+    void request() {
+        requested.incrementAndGet();
+        if(pending.compareAndSet(false, true))
+            EventQueue.invokeLater(this::schedule);
+    }
+
+    //Renders the frame now if it is due, or starts the timer for the time left until it is
+    private void schedule() {
+        long wait = lastFrame + frameNanos - System.nanoTime();
+        if(wait <= 0)
+            frame();
+        else {
+            timer.setInitialDelay((int) TimeUnit.NANOSECONDS.toMillis(wait) + 1);     //rounded up to a millisecond
+            timer.restart();
+        }
+    }
+
+    //Requests made while rendering change the state after it was read, so they are kept for the next frame
+    private void frame() {
+        lastFrame = System.nanoTime();
+        pending.set(false);
+        performed.incrementAndGet();
+        render.run();
+    }
+
+    @Override
+    public long getRequested() {
+        return requested.get();
+    }
+
+    @Override
+    public long getPerformed() {
+        return performed.get();
+    }
+
+    @Override
+    public int getMaxFps() {
+        return maxFps;
+    }
+
+    @Override
+    public void reset() {
+        requested.set(0);
+        performed.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("render        requested %8d  performed %8d  max %d fps", getRequested(),
+                getPerformed(), maxFps);
+    }
+}
@@ -0,0 +1,20 @@
+/* RenderSchedulerMBean.java
+ * Management interface of the desktop game's RenderScheduler, registered with the platform MBean server by Metrics
+ * The difference between the requested and the performed renders is the number of requests that were merged
+ */
+
+package uno;
+
+public interface RenderSchedulerMBean {
+
+    //Number of renders requested by the game and the GUI
+    long getRequested();
+
+    //Number of frames actually rendered
+    long getPerformed();
+
+    int getMaxFps();
+
+    //Clears the counters, so the next readings only cover what happens from now on
+    void reset();
+}
@@ -0,0 +1,125 @@
+/* Rules.java
+ * Effects of the cards, written as a declarative rule set and compiled into a lookup table
+ * Every rule matches cards by color or action, for any number of players, two players, or more than two players,
+ * and gives them effects: picking a color, reversing the direction, skipping a player and drawing cards
+ * The effects of every card face are compiled, for two players and for more, into a single int, so resolving a card
+ * is two array lookups (the face, then its effects) followed by bit masks
+ * A played card targets the next player, a card flipped to start the discard pile targets the player who starts
+ */
+
+package uno;
+
+final class Rules {
+
+    //Numbers of players a rule applies to
+    private static final int ANY = 0;
+    private static final int TWO = 1;
+    private static final int MORE = 2;
+
+    //Rule set, every card gets the effects of all the rules that match it
+    private static final Rule[] RULE_SET = {
+        //         color           action              players  pick   reverse  skip   draw
+        new Rule(CardColor.WILD, null,               ANY,     true,  false,   false, 0),
+        new Rule(null,           CardAction.SKIP,    ANY,     false, false,   true,  0),
+        new Rule(null,           CardAction.DRAW2,   ANY,     false, false,   true,  2),
+        new Rule(null,           CardAction.DRAW4,   ANY,     false, false,   true,  4),
+        new Rule(null,           CardAction.REVERSE, MORE,    false, true,    false, 0),
+        new Rule(null,           CardAction.REVERSE, TWO,     false, false,   true,  0),   //acts as a skip
+    };
+
+    //Layout of the compiled effects of a card
+    private static final int PLAY_STEPS = 0;        //2 bits, turns passed after the card is played
+    private static final int FLIP_STEPS = 2;        //2 bits, turns passed after the card is flipped
+    private static final int REVERSE = 4;           //1 bit, the direction of play is switched
+    private static final int PICK_COLOR = 5;        //1 bit, the player picks a color
+    private static final int DRAW = 6;              //4 bits, cards drawn by the target
+
+    private static final int[] EFFECTS = new int[2 * Card.DECK_SIZE];   //two players first, then more
+
+    static {
+        for(int card = 0; card < Card.DECK_SIZE; card++) {
+            EFFECTS[card] = compile(card, TWO);
+            EFFECTS[Card.DECK_SIZE + card] = compile(card, MORE);
+        }
+    }
+
+    private Rules() {}
+
+    private static final class Rule {
+
+        final CardColor color;          //null to match any color
+        final CardAction action;        //null to match any action
+        final int players;
+        final boolean pickColor;
+        final boolean reverse;
+        final boolean skip;
+        final int draw;
+
+        Rule(CardColor color, CardAction action, int players, boolean pickColor, boolean reverse, boolean skip,
+             int draw) {
+            this.color = color;
+            this.action = action;
+            this.players = players;
+            this.pickColor = pickColor;
+            this.reverse = reverse;
+            this.skip = skip;
+            this.draw = draw;
+        }
+
+        boolean matches(int card, int players) {
+            return (color == null || Card.getCardColor(card) == color) &&
+                    (action == null || Card.getCardAction(card) == action) &&
+                    (this.players == ANY || this.players == players);
+        }
+    }
+
+    /* Combines the rules that match a card
+     * A played card always passes the turn once, and once more if the next player is skipped
+     * A flipped card passes the turn once if the starting player is skipped, or if the direction is reversed (the
+     * player before the starting player starts)
+     */
+    private static int compile(int card, int players) {
+        boolean pickColor = false;
+        boolean reverse = false;
+        boolean skip = false;
+        int draw = 0;
+        for(Rule rule : RULE_SET) {
+            if(rule.matches(card, players)) {
+                pickColor |= rule.pickColor;
+                reverse |= rule.reverse;
+                skip |= rule.skip;
+                draw += rule.draw;
+            }
+        }
+        int playSteps = skip ? 2 : 1;
+        int flipSteps = skip || reverse ? 1 : 0;
+        return playSteps << PLAY_STEPS | flipSteps << FLIP_STEPS | (reverse ? 1 : 0) << REVERSE |
+                (pickColor ? 1 : 0) << PICK_COLOR | draw << DRAW;
+    }
+
+    //Returns the compiled effects of a card in a game with the given number of players
+    static int effects(int card, int players) {
+        int face = Card.getFace(card);
+        return EFFECTS[players == 2 ? face : Card.DECK_SIZE + face];
+    }
+
+    static int playSteps(int effects) {
+        return effects >>> PLAY_STEPS & 3;
+    }
+
+    static int flipSteps(int effects) {
+        return effects >>> FLIP_STEPS & 3;
+    }
+
+    static boolean reverses(int effects) {
+        return (effects >>> REVERSE & 1) != 0;
+    }
+
+    static boolean picksColor(int effects) {
+        return (effects >>> PICK_COLOR & 1) != 0;
+    }
+
+    static int draws(int effects) {
+        return effects >>> DRAW & 15;
+    }
+}
@@ -0,0 +1,52 @@
+/* Simulation.java
+ * Plays CPU versus CPU games back to back without a GUI, audio or pauses
+ * Reports the throughput (games per second) along with win counts and the average game length
+ * Game i is played with the seed Randomness.seedOf(seed, i), the same seed plays the same games
+ * If a log file is given, every game is recorded in it (see GameLog) and can be replayed with GameReplay
+ * Usage: java uno.Simulation [games] [players] [seed] [log file]
+ */
+
+package uno;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class Simulation {
+
+    private static final int TURN_LIMIT = 10000;   //games that don't end within this many turns count as a draw
+
+    public static void main(String [] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int playerCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : Randomness.newSeed();
+        GameLog log = args.length > 3 ? new GameLog(Paths.get(args[3])) : null;
+        Game.checkPlayers(playerCount);
+
+        int[] wins = new int[playerCount];
+        int draws = 0;
+        long turns = 0;
+        long start = System.nanoTime();
+        for(int i = 0; i < games; i++) {
+            Game game = Game.headless(playerCount, Randomness.seedOf(seed, i));
+            game.setLog(log);
+            int winner = game.simulate(TURN_LIMIT);
+            if(winner == -1)
+                draws++;
+            else
+                wins[winner]++;
+            turns += game.getTurns();
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        if(log != null)
+            log.close();
+
+        System.out.printf("Games: %d, players: %d, seed: %d, time: %.2f s%n", games, playerCount, seed, secs);
+        System.out.printf("Throughput: %.1f games/s%n", games / secs);
+        System.out.printf("Average game length: %.1f turns%n", (double) turns / games);
+        for(int i = 0; i < playerCount; i++) {
+            System.out.printf("Player %d wins: %d (%.1f%%)%n", i + 1, wins[i], 100.0 * wins[i] / games);
+        }
+        System.out.println("Draws (turn limit reached): " + draws);
+    }
+}
@@ -0,0 +1,504 @@
+/* Solver.java
+ * Perfect-information search of late-game positions, used for analysis and by SolverPlayer
+ * Every hand and the order of the draw pile are assumed known, so the game is deterministic and is searched with
+ * alpha-beta: the player to move at the root maximizes its chance of winning and every other player minimizes it
+ * (paranoid search, which is exact minimax with two players)
+ * The search follows the rules of Game: a card is played on the discard with its effects (see Rules), or a card is
+ * drawn when none is playable and then either played or the turn is passed (see legalMoves()). Once the draw pile
+ * runs out, Game reshuffles the discard pile at random, so the search stops there and scores the position like a
+ * depth cutoff
+ *
+ * Scores run from LOSS (0) to WIN (10000) for the root player, positions cut off by the depth or by a reshuffle are
+ * scored in between by the hand sizes (see evaluate())
+ * Identical cards (two red 5s) are the same kind (see Card.getKind()), so a hand is a count of each kind and a
+ * position holding the same kinds is the same position, whichever copies they are
+ * A score of WIN or LOSS can only come from the end of a game, so it is proven: the outcome with best play
+ * Positions are kept in a fixed-size transposition table, keyed by a Zobrist hash of the hands, the discard, the
+ * color, the direction, the turn, the card drawn this turn and the number of cards drawn from the draw pile. Each
+ * entry holds the score and whether it is exact, a lower or an upper bound, the depth searched and the best move,
+ * a proven score is used at any depth
+ * The search deepens one move at a time until the position is proven or the time budget runs out
+ *
+ * Moves are encoded as ints: DRAW, PASS, or a kind << 3 | the picked color (CardColor ordinal + 1, 0 if none)
+ * Usage: java uno.Solver [positions] [players] [millis] [seed], solves positions of CPU games with at most
+ * endgameCards() cards in hand and reports nodes per second and transposition table hit rates
+ */
+
+package uno;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+final class Solver {
+
+    static final int DRAW = -1;
+    static final int PASS = -2;
+    static final int WIN = 10000;
+    static final int LOSS = 0;
+    private static final int ENDGAME_CARDS = 6; //cards per player in all the hands from which the endgame starts
+    static final int DEFAULT_TABLE_BITS = 20;   //2^20 entries, 16 MB
+
+    private static final int MAX_DEPTH = 120;   //moves searched at most, deeper positions are always cut off
+    private static final int COLORS = CardColor.values().length;
+    private static final int MAX_COPIES;        //copies of a kind in Card.MAX_DECKS decks
+    private static final int MAX_MOVES;
+
+    //Zobrist keys
+    private static final long[] HAND_KEYS;      //by player, kind and number of copies held (1 or more)
+    private static final long[] DISCARD_KEYS;   //by kind
+    private static final long[] COLOR_KEYS;     //by color to match
+    private static final long[] TURN_KEYS;      //by player
+    private static final long[] DRAWN_KEYS;     //by kind of the card drawn this turn
+    private static final long[] DRAWS_KEYS;     //by number of cards drawn from the draw pile
+    private static final long CCW_KEY;
+
+    //Transposition table entries: score (14 bits), depth (7 bits), bound (2 bits), best move + 3 (16 bits)
+    private static final int EXACT = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+    private static final int NO_MOVE = -3;
+
+    static {
+        int maxCopies = 0;
+        for(int kind = 0; kind < Card.KIND_COUNT; kind++) {
+            maxCopies = Math.max(maxCopies, Card.getKindCopies(kind));
+        }
+        MAX_COPIES = maxCopies * Card.MAX_DECKS;
+        MAX_MOVES = 4 * Card.KIND_COUNT + 1;
+
+        SplittableRandom random = new SplittableRandom(0x5eed);    //fixed, so the keys are the same on every run
+        HAND_KEYS = keys(random, Game.MAX_PLAYERS * Card.KIND_COUNT * (MAX_COPIES + 1));
+        DISCARD_KEYS = keys(random, Card.KIND_COUNT);
+        COLOR_KEYS = keys(random, COLORS);
+        TURN_KEYS = keys(random, Game.MAX_PLAYERS);
+        DRAWN_KEYS = keys(random, Card.KIND_COUNT);
+        DRAWS_KEYS = keys(random, Card.MAX_CARDS + 1);
+        CCW_KEY = random.nextLong();
+    }
+
+    private static long[] keys(SplittableRandom random, int count) {
+        long[] keys = new long[count];
+        for(int i = 0; i < count; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    //Best move found by a search and what the search took
+    static final class Result {
+
+        final int decision;             //the move as a Strategy decision, with a card of the player's hand
+        final int score;                //score of the move, exact if the position was proven
+        final int depth;                //depth of the last search that was completed
+        final boolean proven;           //true if the score is WIN or LOSS, the outcome of the game with best play
+        final long nodes;
+        final long nanos;
+
+        Result(int decision, int score, int depth, boolean proven, long nodes, long nanos) {
+            this.decision = decision;
+            this.score = score;
+            this.depth = depth;
+            this.proven = proven;
+            this.nodes = nodes;
+            this.nanos = nanos;
+        }
+    }
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+    private final int[] moves;                  //legal moves, MAX_MOVES for each ply
+
+    //Position being searched
+    private int players;
+    private int root;                           //the player who searches
+    private int[] counts;                       //copies of each kind in each hand, by player * Card.KIND_COUNT + kind
+    private int[] colorCounts;                  //cards of each color in each hand, by player * COLORS + color
+    private int[] handSizes;
+    private int discard;                        //kind of the top of the discard pile
+    private int color;                          //color to match, ordinal
+    private boolean ccw;
+    private int turn;
+    private int drawn;                          //kind of the card drawn this turn, -1 if none was drawn
+    private int[] drawKinds;                    //kinds of the draw pile, top first
+    private int draws;                          //cards drawn from the draw pile since the root
+    private long handKey;                       //Zobrist hash of the hands
+    private long salt;                          //changed for every root, so entries of other roots never match
+
+    //Search
+    private long deadline;
+    private boolean stopped;
+    private int rootMove;                       //best move at the root of the last search
+    private long nodes;
+    private long probes;
+    private long hits;
+    private long cuts;                          //hits whose score ended the search of the position
+    private long totalNodes;                    //totals over every search, read by the analysis
+    private long totalNanos;
+
+    //Creates a solver with a transposition table of 2^tableBits entries (16 bytes each)
+    Solver(int tableBits) {
+        keys = new long[1 << tableBits];
+        entries = new long[keys.length];
+        mask = keys.length - 1;
+        moves = new int[(MAX_DEPTH + 1) * MAX_MOVES];
+    }
+
+    public static void main(String [] args) {
+        System.setProperty("java.awt.headless", "true");
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int playerCount = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 100;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : Randomness.newSeed();
+        Game.checkPlayers(playerCount);
+        PlayerFactory[] seats = new PlayerFactory[playerCount];
+        for(int i = 0; i < playerCount; i++) {
+            seats[i] = CPUPlayer.FACTORY;
+        }
+        Solver solver = new Solver(DEFAULT_TABLE_BITS);
+        System.out.printf("Positions: %d, players: %d, budget: %d ms, seed: %d, at most %d cards in hand%n",
+                positions, playerCount, millis, seed, endgameCards(playerCount));
+        int solved = 0;
+        int proven = 0;
+        int wins = 0;
+        long depths = 0;
+        for(int i = 0; solved < positions; i++) {
+            Game game = Game.headless(playerCount, Randomness.seedOf(seed, i));
+            game.start(seats);
+            while(game.isRunning() && cardsInHand(game) > endgameCards(playerCount)) {
+                game.playTurn();
+            }
+            if(!game.isRunning())
+                continue;
+            Result result = solver.solve(game, game.getCurrentTurn(), millis);
+            solved++;
+            depths += result.depth;
+            if(result.proven) {
+                proven++;
+                if(result.score == WIN)
+                    wins++;
+            }
+        }
+        double secs = solver.totalNanos / 1e9;
+        System.out.printf("Proven: %d (%.1f%%), won: %d of them, average depth: %.1f moves%n", proven,
+                100.0 * proven / solved, wins, (double) depths / solved);
+        System.out.printf("Nodes: %d, %.0f nodes/s, table probes: %d, hit rate: %.1f%%, cut rate: %.1f%%%n",
+                solver.totalNodes, solver.totalNodes / secs, solver.probes,
+                100.0 * solver.hits / Math.max(1, solver.probes), 100.0 * solver.cuts / Math.max(1, solver.probes));
+    }
+
+    //Number of cards in all the hands from which a game of the given number of players is in its endgame
+    static int endgameCards(int players) {
+        return ENDGAME_CARDS * players;
+    }
+
+    //Number of cards in all the hands of a game
+    static int cardsInHand(Game game) {
+        int cards = 0;
+        for(Player player : game.getPlayers()) {
+            cards += player.getHand().getLength();
+        }
+        return cards;
+    }
+
+    /* Searches the best move of the player at the given seat, who has the current turn, for at most millis
+     * milliseconds, the search stops earlier once the position is proven
+     */
+    Result solve(Game game, int seat, long millis) {
+        long start = System.nanoTime();
+        setUp(game, seat);
+        deadline = start + TimeUnit.MILLISECONDS.toNanos(millis);
+        stopped = false;
+        nodes = 0;
+        int bestMove = NO_MOVE;
+        int bestScore = 0;
+        int depth = 0;
+        boolean proven = false;
+        for(int d = 1; d <= MAX_DEPTH && !proven; d++) {
+            rootMove = NO_MOVE;
+            int score = search(d, LOSS - 1, WIN + 1, 0);
+            if(stopped)
+                break;
+            //every move of a lost position loses, the best move of the last search that didn't see it resists longest
+            if(score != LOSS || bestMove == NO_MOVE)
+                bestMove = rootMove;
+            bestScore = score;
+            depth = d;
+            proven = score == WIN || score == LOSS;
+        }
+        if(bestMove == NO_MOVE)         //not even one move deep in time, any legal move will do
+            bestMove = moves[0];
+        long nanos = System.nanoTime() - start;
+        totalNodes += nodes;
+        totalNanos += nanos;
+        return new Result(decision(game.getPlayers()[seat].getHand(), bestMove), bestScore, depth, proven, nodes,
+                nanos);
+    }
+
+    //Copies the position of the game, seen from the given seat
+    private void setUp(Game game, int seat) {
+        Player[] seated = game.getPlayers();
+        if(counts == null || players != seated.length) {
+            players = seated.length;
+            counts = new int[players * Card.KIND_COUNT];
+            colorCounts = new int[players * COLORS];
+            handSizes = new int[players];
+            drawKinds = new int[Card.MAX_CARDS];
+        }
+        Arrays.fill(counts, 0);
+        Arrays.fill(colorCounts, 0);
+        Arrays.fill(handSizes, 0);
+        handKey = 0;
+        for(int player = 0; player < players; player++) {
+            Hand hand = seated[player].getHand();
+            for(int i = 0; i < hand.getLength(); i++) {
+                add(player, Card.getKind(hand.get(i)));
+            }
+        }
+        DiscardPile discardPile = game.getDiscardPile();
+        discard = Card.getKind(discardPile.getLast());
+        color = discardPile.getColor().ordinal();
+        ccw = game.getDirection() == Direction.CCW;
+        root = seat;
+        turn = seat;
+        drawn = seated[seat].isDrawn() ? Card.getKind(seated[seat].getHand().getLast()) : -1;
+        DrawPile drawPile = game.getDrawPile();
+        for(int i = 0; i < drawPile.getLength(); i++) {
+            drawKinds[i] = Card.getKind(drawPile.get(drawPile.getLength() - 1 - i));
+        }
+        drawKinds[drawPile.getLength()] = -1;
+        draws = 0;
+        salt = Randomness.newSeed();
+    }
+
+    private void add(int player, int kind) {
+        int index = player * Card.KIND_COUNT + kind;
+        int copies = counts[index]++;
+        handKey ^= handKey(index, copies) ^ handKey(index, copies + 1);
+        colorCounts[player * COLORS + Card.getCardColor(Card.getKindCard(kind)).ordinal()]++;
+        handSizes[player]++;
+    }
+
+    private void remove(int player, int kind) {
+        int index = player * Card.KIND_COUNT + kind;
+        int copies = counts[index]--;
+        handKey ^= handKey(index, copies) ^ handKey(index, copies - 1);
+        colorCounts[player * COLORS + Card.getCardColor(Card.getKindCard(kind)).ordinal()]--;
+        handSizes[player]--;
+    }
+
+    private static long handKey(int index, int copies) {
+        return copies == 0 ? 0 : HAND_KEYS[index * (MAX_COPIES + 1) + copies];
+    }
+
+    private long key() {
+        long key = handKey ^ DISCARD_KEYS[discard] ^ COLOR_KEYS[color] ^ TURN_KEYS[turn] ^ DRAWS_KEYS[draws] ^ salt;
+        if(ccw)
+            key ^= CCW_KEY;
+        if(drawn != -1)
+            key ^= DRAWN_KEYS[drawn];
+        return key;
+    }
+
+    /* Alpha-beta search of the current position to the given depth, returns its score for the root player
+     * Scores at or below alpha are upper bounds and scores at or above beta lower bounds
+     */
+    private int search(int depth, int alpha, int beta, int ply) {
+        nodes++;
+        if((nodes & 1023) == 0 && System.nanoTime() > deadline)
+            stopped = true;
+        if(stopped)
+            return 0;
+        long key = key();
+        int slot = (int) key & mask;
+        int ttMove = NO_MOVE;
+        probes++;
+        if(keys[slot] == key) {
+            hits++;
+            long entry = entries[slot];
+            ttMove = (int) (entry & 0xffff) - 3;
+            int bound = (int) (entry >>> 16 & 3);
+            int entryDepth = (int) (entry >>> 18 & 127);
+            int score = (int) (entry >>> 25 & 0x3fff);
+            boolean proven = score == WIN && bound != UPPER || score == LOSS && bound != LOWER;
+            if(ply != 0 && (proven || entryDepth >= depth) && (bound == EXACT || bound == LOWER && score >= beta ||
+                    bound == UPPER && score <= alpha)) {
+                cuts++;
+                return score;
+            }
+        }
+        if(depth == 0)
+            return evaluate();
+        int base = ply * MAX_MOVES;
+        int count = legalMoves(base);
+        for(int i = 1; i < count; i++) {          //the best move of an earlier search first
+            if(moves[base + i] == ttMove) {
+                moves[base + i] = moves[base];
+                moves[base] = ttMove;
+                break;
+            }
+        }
+        boolean maximizing = turn == root;
+        int best = maximizing ? LOSS - 1 : WIN + 1;
+        int bestMove = NO_MOVE;
+        int low = alpha;
+        int high = beta;
+        for(int i = 0; i < count && low < high; i++) {
+            int move = moves[base + i];
+            int score = play(move, depth, low, high, ply);
+            if(stopped)
+                return 0;
+            if(maximizing ? score > best : score < best) {
+                best = score;
+                bestMove = move;
+                if(maximizing)
+                    low = Math.max(low, score);
+                else
+                    high = Math.min(high, score);
+            }
+        }
+        if(ply == 0)
+            rootMove = bestMove;
+        int bound = best <= alpha ? UPPER : best >= beta ? LOWER : EXACT;
+        if(keys[slot] != key || (entries[slot] >>> 18 & 127) <= depth) {       //keeps the deeper entry of a position
+            keys[slot] = key;
+            entries[slot] = (long) best << 25 | (long) depth << 18 | (long) bound << 16 | bestMove + 3;
+        }
+        return best;
+    }
+
+    //Makes a move, searches the position it leads to and takes the move back, following Game.playTurn()
+    private int play(int move, int depth, int alpha, int beta, int ply) {
+        int player = turn;
+        int oldDrawn = drawn;
+        if(move == DRAW) {
+            int kind = drawKinds[draws++];
+            add(player, kind);
+            drawn = kind;
+            int score = search(depth - 1, alpha, beta, ply + 1);
+            drawn = oldDrawn;
+            remove(player, kind);
+            draws--;
+            return score;
+        }
+        if(move == PASS) {
+            drawn = -1;
+            turn = next(turn);
+            int score = drawKinds[draws] == -1 ? evaluate() : search(depth - 1, alpha, beta, ply + 1);
+            turn = player;
+            drawn = oldDrawn;
+            return score;
+        }
+        int kind = move >>> 3;
+        int oldDiscard = discard;
+        int oldColor = color;
+        boolean oldCcw = ccw;
+        int oldDraws = draws;
+        remove(player, kind);
+        if(handSizes[player] == 0) {
+            add(player, kind);
+            return player == root ? WIN : LOSS;
+        }
+        discard = kind;
+        drawn = -1;
+        int card = Card.getKindCard(kind);
+        color = (move & 7) != 0 ? (move & 7) - 1 : Card.getCardColor(card).ordinal();
+        int effects = Rules.effects(card, players);
+        if(Rules.reverses(effects))
+            ccw = !ccw;
+        int target = next(player);
+        for(int i = Rules.draws(effects); i > 0 && drawKinds[draws] != -1; i--) {
+            add(target, drawKinds[draws++]);
+        }
+        for(int i = Rules.playSteps(effects); i > 0; i--) {
+            turn = next(turn);
+        }
+        int score = drawKinds[draws] == -1 ? evaluate() : search(depth - 1, alpha, beta, ply + 1);
+        while(draws > oldDraws) {
+            remove(target, drawKinds[--draws]);
+        }
+        turn = player;
+        ccw = oldCcw;
+        color = oldColor;
+        discard = oldDiscard;
+        drawn = oldDrawn;
+        add(player, kind);
+        return score;
+    }
+
+    /* Scores a position that isn't searched further (the depth is reached or the discard pile is reshuffled) by the
+     * hand sizes: the fewer cards the root player holds compared to its best placed opponent, the higher, always
+     * strictly between LOSS and WIN
+     */
+    private int evaluate() {
+        int own = handSizes[root];
+        int opponent = Integer.MAX_VALUE;
+        for(int player = 0; player < players; player++) {
+            if(player != root)
+                opponent = Math.min(opponent, handSizes[player]);
+        }
+        int score = WIN * opponent / (own + opponent);
+        return Math.max(LOSS + 1, Math.min(WIN - 1, score));
+    }
+
+    private int next(int player) {
+        if(ccw)
+            return player == 0 ? players - 1 : player - 1;
+        return player == players - 1 ? 0 : player + 1;
+    }
+
+    /* Fills moves from base with the moves of the player to move that are searched and returns their number
+     * Before drawing, every playable kind (a wild card in each color), or DRAW when none is playable, after drawing,
+     * the drawn card if it is playable and PASS
+     * Drawing with a playable card is legal, but any player could then draw until the draw pile runs out, so no
+     * position would ever be proven. Like Ismcts, a card is only drawn when no card is playable
+     */
+    private int legalMoves(int base) {
+        int count = base;
+        int player = turn;
+        if(drawn == -1) {
+            for(int kind = 0; kind < Card.KIND_COUNT; kind++) {
+                if(counts[player * Card.KIND_COUNT + kind] != 0 && isPlayable(player, kind))
+                    count = addPlays(kind, count);
+            }
+            if(count == base)
+                moves[count++] = drawKinds[draws] != -1 ? DRAW : PASS;     //Game draws nothing from an empty pile
+        }
+        else {
+            if(isPlayable(player, drawn))
+                count = addPlays(drawn, count);
+            moves[count++] = PASS;
+        }
+        return count - base;
+    }
+
+    private int addPlays(int kind, int count) {
+        if(Card.getCardColor(Card.getKindCard(kind)) == CardColor.WILD) {
+            for(int c = 0; c < 4; c++) {
+                moves[count++] = kind << 3 | c + 1;
+            }
+        }
+        else
+            moves[count++] = kind << 3;
+        return count;
+    }
+
+    //Follows Hand.isPlayable(), a wild draw four is only playable when no card of the hand matches the color
+    private boolean isPlayable(int player, int kind) {
+        int card = Card.getKindCard(kind);
+        if(Card.getCardAction(card) == CardAction.DRAW4)
+            return colorCounts[player * COLORS + color] == 0;
+        return Card.isPlayableOn(card, Card.getKindCard(discard), CardColor.values()[color]);
+    }
+
+    //Turns a move into a Strategy decision, with a card of the hand (the drawn card if it has the move's kind)
+    private static int decision(Hand hand, int move) {
+        if(move < 0)
+            return move;
+        int card = hand.findKind(move >>> 3);
+        if(card == -1)
+            throw new IllegalStateException("No card of the move's kind in hand");
+        return card << 3 | move & 7;
+    }
+}
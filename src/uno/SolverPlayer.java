@@ -0,0 +1,69 @@
+/* SolverPlayer.java
+ * Represents the "hard" AI player: it plays like a CPUPlayer until the hands hold at most Solver.endgameCards() cards
+ * in all, from then on every move is searched by the Solver, which sees every hand and the order of the draw pile
+ * The search goes on when draws take the hands over the limit again, or a proven win would be thrown away
+ * Each thread keeps its own Solver, so the transposition table is allocated once per thread instead of once per game
+ */
+
+package uno;
+
+import java.util.SplittableRandom;
+
+public class SolverPlayer extends Player {
+
+    private static final int TABLE_BITS = 18;      //2^18 entries, 4 MB per thread
+    private static final ThreadLocal<Solver> SOLVERS = ThreadLocal.withInitial(() -> new Solver(TABLE_BITS));
+
+    private final CPUPlayer cpu;            //plays the moves before the endgame
+    private final long millis;              //time per searched move in milliseconds
+    private Game game;
+    private int index;
+    private boolean endgame;                //true once the hands held at most Solver.endgameCards()
+    private CardColor color;                //color picked with the last move
+
+    SolverPlayer(Hand hand, DiscardPile discardPile, SplittableRandom random, long millis) {
+        super(hand, discardPile);
+        cpu = new CPUPlayer(random);
+        this.millis = millis;
+        AI = true;
+    }
+
+    @Override
+    void seat(Game game, int index) {
+        this.game = game;
+        this.index = index;
+    }
+
+    @Override
+    void reseed(SplittableRandom random) {
+        cpu.reseed(random);
+    }
+
+    @Override
+    public boolean play() {
+        Hand hand = getHand();
+        while(true) {
+            endgame |= Solver.cardsInHand(game) <= Solver.endgameCards(game.getPlayers().length);
+            int decision = endgame ? SOLVERS.get().solve(game, index, millis).decision :
+                    cpu.decide(new BotView(game, index));
+            if(decision == Strategy.DRAW) {
+                hand.drawCard(1);
+                setDrawn(true);
+            }
+            else if(decision == Strategy.PASS)
+                return false;
+            else {
+                color = Strategy.colorOf(decision);
+                hand.playCard(Strategy.cardOf(decision));
+                return true;
+            }
+        }
+    }
+
+    //The color is searched with the wild card, CPU moves and a wild card flipped at the start take the abundant color
+    @Override
+    public void pickColor() {
+        discardPile.setWildColor(color != null ? color : CPUPlayer.abundantColor(getHand()));
+        color = null;
+    }
+}
@@ -0,0 +1,152 @@
+/* Startup.java
+ * Gets the desktop game to the welcome screen quickly and has every asset ready by the time a mode is picked
+ * The welcome screen is shown before its background is decoded, the background, the card faces (and the rotated backs
+ * of the opponents' cards), the direction icons and the sound effects are decoded in parallel on daemon threads
+ * while the screen is up, so the first game doesn't decode anything on the Event Dispatch Thread
+ * The time to the welcome screen (from the start of the JVM) and to the first playable turn (from the moment a mode
+ * is picked) are printed, along with the time the preloading took
+ * The main method is the training run of the AppCDS archive built by Maven (see game/pom.xml): without a display, it
+ * loads the classes that the game loads at startup, so the archive maps them in instead of loading them from the jar
+ * Usage: java -XX:ArchiveClassesAtExit=uno.jsa -cp uno.jar uno.Startup
+ */
+
+package uno;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+final class Startup {
+
+    static final String BACKGROUND = "/images/other/Uno background.jpg";
+
+    //Decodes the assets, its threads end once they have been idle for a second
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(threads(), threads(), 1,
+            TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "Startup");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static CompletableFuture<BufferedImage> background;
+    private static volatile long modeSelected;          //System.nanoTime() when the first mode was picked, 0 before
+    private static volatile boolean firstTurnShown;
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private Startup() {}
+
+    //Decoding is mostly CPU bound, one thread per core, at least two so the background doesn't wait for the cards
+    private static int threads() {
+        return Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    /* Starts decoding every asset of the game, the welcome screen's background first
+     * Images go to ImageProcessor's cache and card icons to its icon cache, the sound effects to GameAudio
+     */
+    static CompletableFuture<Void> preloadAssets() {
+        long start = System.nanoTime();
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        tasks.add(background());
+        tasks.add(CompletableFuture.runAsync(GameAudio::start, EXECUTOR));
+        tasks.add(CompletableFuture.runAsync(Metrics::register, EXECUTOR));
+        for(String path : new String[] {GameGUI.CLOCKWISE, GameGUI.COUNTER_CLOCKWISE}) {
+            tasks.add(CompletableFuture.runAsync(() -> ImageProcessor.loadImage(path), EXECUTOR));
+        }
+        for(String path : facePaths()) {
+            tasks.add(CompletableFuture.runAsync(() -> ImageProcessor.loadIcon(path, 0), EXECUTOR));
+        }
+        //opponents' cards are shown face down on the sides and at the top
+        tasks.add(CompletableFuture.runAsync(() -> {
+            for(int angle = 0; angle < 360; angle += 90) {
+                ImageProcessor.loadIcon(CardButton.BACK, angle);
+            }
+        }, EXECUTOR));
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).thenRun(() ->
+                System.out.printf("Assets preloaded in %d ms%n",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    //Face of every card, with the faces of the wild cards for each picked color
+    private static Set<String> facePaths() {
+        Set<String> paths = new LinkedHashSet<>();
+        for(int card = 0; card < Card.DECK_SIZE; card++) {
+            paths.add(CardButton.facePath(card, CardColor.WILD));
+            if(Card.getCardColor(card) == CardColor.WILD) {
+                for(int i = 0; i < 4; i++) {
+                    paths.add(CardButton.facePath(card, CardColor.values()[i]));
+                }
+            }
+        }
+        return paths;
+    }
+
+    //The welcome screen's background, decoded on the startup threads
+    static synchronized CompletableFuture<BufferedImage> background() {
+        if(background == null)
+            background = CompletableFuture.supplyAsync(() -> ImageProcessor.loadImage(BACKGROUND), EXECUTOR);
+        return background;
+    }
+
+    //Called by the welcome screen once it is shown the first time
+    static void welcomeShown() {
+        long now = System.currentTimeMillis();
+        EXECUTOR.execute(() -> System.out.printf("Welcome screen shown %d ms after the JVM started%n",
+                now - ManagementFactory.getRuntimeMXBean().getStartTime()));
+    }
+
+    //Called by the game thread when a mode is picked
+    static void modeSelected() {
+        if(modeSelected == 0)
+            modeSelected = System.nanoTime();
+    }
+
+    //Called by the GUI after every render, reports the first render of the first game
+    static void turnShown() {
+        if(firstTurnShown || modeSelected == 0)
+            return;
+        firstTurnShown = true;
+        System.out.printf("First turn playable %d ms after the mode was picked%n",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - modeSelected));
+    }
+
+    /* Training run of the AppCDS archive
+     * Windows can't be created without a display, so the game's classes are loaded without creating its windows,
+     * the assets are preloaded and the components of a game that don't need a display are created
+     */
+    public static void main(String [] args) {
+        System.setProperty("java.awt.headless", "true");
+        preloadAssets().join();
+        String[] classes = {"Game", "GameGUI", "WelcomeScreen", "ColorSelector", "HumanPlayer", "HandView",
+                "ActionInbox", "PlayerAction", "TurnPacer", "CPUPlayer", "BotPlayer", "BotView", "Rules", "Metrics"};
+        try {
+            for(String name : classes) {
+                Class.forName("uno." + name, false, Startup.class.getClassLoader());
+            }
+            Class.forName("javax.swing.JOptionPane");
+        } catch(ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+        JPanel panel = new JPanel(new GridBagLayout());
+        for(int card = 0; card < Card.DECK_SIZE; card++) {
+            CardButton button = new CardButton(card);
+            button.setCardIcon(true, 0);
+            panel.add(button, new GridBagConstraints());
+        }
+        panel.add(new JLabel("UNO", new ImageIcon(ImageProcessor.loadImage(GameGUI.CLOCKWISE)), JLabel.CENTER));
+        panel.add(new JButton("Pass"));
+        panel.doLayout();
+        Game.headless(4, 1).simulate(0);
+    }
+}
@@ -0,0 +1,64 @@
+/* Strategy.java
+ * Decides the moves of a bot from an immutable view of the game (see BotView), seated in a game by a BotPlayer
+ * A strategy never touches the game, its hand or the GUI: it only reads the view and returns a decision
+ *
+ * Decisions are encoded as ints: DRAW, PASS, or a card's id << 3 | the picked color (CardColor ordinal + 1, 0 to
+ * leave the color of a wild card to pickColor(), always 0 for a colored card)
+ * A turn may take two decisions: DRAW, then playing a card or PASS. Passing is only allowed once a card was drawn
+ *
+ * The batched decide() decides for the views of many games in one call (see Lockstep), so a strategy with a costly
+ * setup (a model, a search tree, lookup tables) pays for it once per batch instead of once per move
+ */
+
+package uno;
+
+import java.util.SplittableRandom;
+
+interface Strategy {
+
+    int DRAW = -1;
+    int PASS = -2;
+
+    //Returns the decision of the player to move in the view
+    int decide(BotView view);
+
+    /* Decides for views[0] to views[count - 1] at once, decisions[i] is the decision for views[i]
+     * The views may come from different games, strategies that keep state across calls must not mix them up
+     */
+    default void decide(BotView[] views, int count, int[] decisions) {
+        for(int i = 0; i < count; i++) {
+            decisions[i] = decide(views[i]);
+        }
+    }
+
+    /* Picks the color of a wild card whose decision didn't pick one, and of a wild card flipped at the start of
+     * the game, the view is taken after the card was played. The color that exists most in the hand by default
+     */
+    default CardColor pickColor(BotView view) {
+        return CPUPlayer.abundantColor(view.getColorCount(CardColor.BLUE), view.getColorCount(CardColor.RED),
+                view.getColorCount(CardColor.GREEN), view.getColorCount(CardColor.YELLOW));
+    }
+
+    //Replaces the strategy's random stream when the game restarts its streams (see Game.reseed()), if it has one
+    default void reseed(SplittableRandom random) {}
+
+    //Decision to play a card, the color of a wild card is then picked by pickColor()
+    static int play(int card) {
+        return card << 3;
+    }
+
+    //Decision to play a wild card with the given color
+    static int play(int card, CardColor color) {
+        return card << 3 | color.ordinal() + 1;
+    }
+
+    //Returns the card played by a decision
+    static int cardOf(int decision) {
+        return decision >>> 3;
+    }
+
+    //Returns the color picked by a decision, null if the decision doesn't pick one
+    static CardColor colorOf(int decision) {
+        return (decision & 7) == 0 ? null : CardColor.values()[(decision & 7) - 1];
+    }
+}
@@ -0,0 +1,265 @@
+/* Table.java
+ * One table of a TableHost, plays headless games back to back where the first seats are RemotePlayers
+ * A table doesn't own a thread: its turns are played by a task on the host's pool, and the task ends when the
+ * table waits on a remote seat, which leaves the table parked as plain objects on the heap
+ * Moves are sent with submit() from any thread, they are queued in the table's inbox and the table is scheduled again
+ * Every table has its own game, piles and players, only the host's pool is shared
+ * CPU turns are paced by the table's TurnPacer: the table leaves the pool and is scheduled again by the pacer's timer
+ * when the move is due, so a paced table doesn't hold a thread either
+ */
+
+package uno;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class Table {
+
+    //Types of moves sent by clients
+    static final int PLAY = 1;          //plays a card, with a color if the card is wild
+    static final int DRAW = 2;          //draws a card, the turn goes on
+    static final int PASS = 3;          //ends the turn after drawing a card
+
+    private static final int BATCH_SIZE = 64;   //turns played by one task before the table lets other tables run
+
+    /* Notified when a table waits on a remote seat
+     * Called on the host's pool, the table's state (getHand(), getDiscardPile()) may only be read during the call
+     */
+    interface Listener {
+
+        void awaitingMove(Table table, int seat);
+
+        //Called when a game ends, before the table starts the next one, winner is -1 if nobody won
+        default void gameEnded(Table table, int winner) {}
+    }
+
+    private final int id;
+    private final int playerCount;
+    private final int remoteSeats;              //seats 0 to remoteSeats - 1 are RemotePlayers, the others CPUPlayers
+    private final long seed;                    //seed of the table's series of games
+    private final Executor executor;
+    private final TurnPacer pacer;
+    private final Listener listener;
+    private final Queue<Integer> inbox;         //moves sent by clients, encoded by encode()
+    private final AtomicBoolean scheduled;      //true while a task of this table is queued or running
+    private volatile boolean closed;
+    private Game game;
+    private boolean waiting;                    //true once the listener was told that the table waits on a move
+    private long turnDue;                       //System.nanoTime() when the paced CPU turn is due, 0 if not paced yet
+    private int games;                          //number of games started at this table
+    private long turns;                         //number of turns played at this table
+    private int rejected;                       //number of moves that were not legal
+
+    Table(int id, int playerCount, int remoteSeats, long seed, Executor executor, TurnPacer pacer,
+          Listener listener) {
+        this.id = id;
+        this.playerCount = playerCount;
+        this.remoteSeats = remoteSeats;
+        this.seed = seed;
+        this.executor = executor;
+        this.pacer = pacer;
+        this.listener = listener;
+        inbox = new ConcurrentLinkedQueue<>();
+        scheduled = new AtomicBoolean();
+    }
+
+    //Starts the first game, the table runs until it waits on a remote seat
+    void open() {
+        schedule();
+    }
+
+    //Stops the table, moves that are still in the inbox are dropped
+    void close() {
+        closed = true;
+    }
+
+    /* Sends a move for the given seat, card is only used by PLAY and color only by PLAY with a wild card
+     * Moves that are not legal when the table gets to them are dropped and the listener is asked again
+     * May be called from any thread
+     */
+    void submit(int seat, int type, int card, CardColor color) {
+        inbox.add(encode(seat, type, card, color));
+        schedule();
+    }
+
+    //Asks the listener again for a move if the table waits on one, used by clients that didn't answer a call
+    void remind() {
+        inbox.add(0);
+        schedule();
+    }
+
+    //Queues a task for this table unless one is already queued or running
+    private void schedule() {
+        if(scheduled.compareAndSet(false, true))
+            executor.execute(this::run);
+    }
+
+    /* Plays the table until it waits on a move or has played a batch of turns
+     * A move submitted after the inbox was found empty schedules the table again
+     */
+    private void run() {
+        boolean more = pump();
+        scheduled.set(false);
+        if(!closed && (more || !inbox.isEmpty()))
+            schedule();
+    }
+
+    //Returns true if the table stopped because the batch is over, false if it waits on a move or is closed
+    private boolean pump() {
+        for(int i = 0; i < BATCH_SIZE; ) {
+            if(closed)
+                return false;
+            if(game == null || !game.isRunning())
+                newGame();
+            int seat = game.getCurrentTurn();
+            Player player = game.getPlayers()[seat];
+            if(!(player instanceof RemotePlayer)) {
+                if(!isTurnDue())
+                    return false;
+                playTurn();
+                i++;
+                continue;
+            }
+            Integer move = inbox.poll();
+            if(move == null) {
+                if(waiting)
+                    return false;
+                waiting = true;
+                listener.awaitingMove(this, seat);      //the listener may submit the move right away
+                continue;
+            }
+            if(move == 0) {
+                waiting = false;
+                continue;
+            }
+            waiting = false;
+            if(apply((RemotePlayer) player, seat, move))
+                i++;
+        }
+        return true;
+    }
+
+    /* Checks a move and makes it if it is legal
+     * Returns true if the move ended the turn
+     */
+    private boolean apply(RemotePlayer player, int seat, int move) {
+        int type = move >>> 28;
+        int card = move & 0xffff;
+        int colorIndex = move >>> 24 & 0xf;
+        CardColor color = colorIndex == 0 ? null : CardColor.values()[colorIndex - 1];
+        Hand hand = player.getHand();
+        if((move >>> 16 & 0xff) != seat) {
+            rejected++;
+            return false;
+        }
+        if(type == DRAW && !player.isDrawn()) {
+            hand.drawCard(1);
+            player.setDrawn(true);
+            return false;
+        }
+        if(type == PASS && player.isDrawn()) {
+            player.setMove(-1, null);
+            playTurn();
+            return true;
+        }
+        if(type == PLAY && hand.indexOf(card) != -1 && hand.isPlayable(card) &&
+                (!player.isDrawn() || card == hand.getLast()) && color != CardColor.WILD) {
+            player.setMove(card, Card.getCardColor(card) == CardColor.WILD ? color : null);
+            playTurn();
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    /* Checks if the current CPU turn may be played, the first check of a paced turn sets the turn's due time and
+     * schedules the table for that time
+     */
+    private boolean isTurnDue() {
+        if(pacer.isTurbo())
+            return true;
+        long now = System.nanoTime();
+        if(turnDue == 0) {
+            turnDue = now + TimeUnit.MILLISECONDS.toNanos(pacer.getPaceMillis());
+            pacer.schedule(this::schedule);
+            return false;
+        }
+        if(now - turnDue < 0)
+            return false;       //the table was woken up by a move or a reminder, the pacer wakes it up again
+        turnDue = 0;
+        return true;
+    }
+
+    private void playTurn() {
+        game.playTurn();
+        turns++;
+    }
+
+    //Starts the next game of the table's series
+    private void newGame() {
+        if(game != null)
+            listener.gameEnded(this, game.getWinner());
+        game = Game.headless(playerCount, Randomness.seedOf(seed, games++));
+        PlayerFactory[] seats = new PlayerFactory[playerCount];
+        for(int i = 0; i < playerCount; i++) {
+            if(i < remoteSeats)
+                seats[i] = (hand, discardPile, random) -> new RemotePlayer(hand, discardPile);
+            else
+                seats[i] = CPUPlayer.FACTORY;
+        }
+        game.start(seats);
+        waiting = false;
+    }
+
+    /* Packs a move in an int: type (4 bits), color (4 bits, 0 for none), seat (8 bits) and card (16 bits)
+     * 0 is never a move, it is used by remind()
+     */
+    private static int encode(int seat, int type, int card, CardColor color) {
+        int colorIndex = color == null ? 0 : color.ordinal() + 1;
+        return type << 28 | colorIndex << 24 | (seat & 0xff) << 16 | (card & 0xffff);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    //Hand of the given seat, may only be read by the listener
+    Hand getHand(int seat) {
+        return game.getPlayers()[seat].getHand();
+    }
+
+    //Discard pile of the current game, may only be read by the listener
+    DiscardPile getDiscardPile() {
+        return game.getDiscardPile();
+    }
+
+    //Direction of play of the current game, may only be read by the listener
+    Direction getDirection() {
+        return game.getDirection();
+    }
+
+    int getPlayerCount() {
+        return playerCount;
+    }
+
+    //Whether the given seat has drawn a card this turn, may only be read by the listener
+    boolean isDrawn(int seat) {
+        return game.getPlayers()[seat].isDrawn();
+    }
+
+    //The counters are only up to date once the table is parked or closed
+    int getGames() {
+        return games;
+    }
+
+    long getTurns() {
+        return turns;
+    }
+
+    int getRejected() {
+        return rejected;
+    }
+}
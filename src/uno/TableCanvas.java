@@ -0,0 +1,308 @@
+/* TableCanvas.java
+ * Paints the whole table of a game (every hand, both piles, the turn and the direction of play) on one component
+ * Cards are copied from the CardAtlas, so a frame is one image copy per shown card with no layout, where the default
+ * GUI lays out and paints a button per card inside the panels of each hand
+ * The hands are seated like GameGUI seats its hand views, and show as many cards
+ * The cards that the user can click (the shown cards of the user's hand and the tops of the piles) are recorded while
+ * painting, and clicks are mapped back to them with cardAt()
+ * The pass button is the only child component, it is placed under the piles
+ */
+
+package uno;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.util.function.IntConsumer;
+
+public class TableCanvas extends JComponent implements MouseListener {
+
+    private static final int GAP = 10;                          //space around the hands and between the middle rows
+    private static final int CARD_WIDTH = CardButton.VERTICAL_SIZE.width;      //cell of a card, as big as a button
+    private static final int CARD_HEIGHT = CardButton.VERTICAL_SIZE.height;
+    private static final int USER_CARDS = 7;                    //cards shown in the user's hand
+
+    private final Game game;
+    private final JButton pass;
+    private final Image clockWise;
+    private final Image counterClockWise;
+    private CardAtlas atlas;
+    private int[] angles;               //angle at which each player's hand is displayed, indexed like the players
+    private int[] maxCards;             //cards shown by each player's hand
+    private int[] left;                 //players seated on each side, in the order they are painted
+    private int[] top;
+    private int[] right;
+    private int startIndex;             //index of the first card shown in the user's hand
+    private final int[] hitCards;       //cards that can be clicked, recorded by the last paint
+    private final Rectangle[] hitAreas; //area of each card in hitCards
+    private int hitCount;
+    private int pressedCard;            //card under the mouse when it was pressed, -1 if none
+    private IntConsumer cardListener;   //receives the cards clicked by the user, null if there is no listener
+
+    TableCanvas(Game game, JButton pass) {
+        this.game = game;
+        this.pass = pass;
+        clockWise = ImageProcessor.loadImage(GameGUI.CLOCKWISE);
+        counterClockWise = ImageProcessor.loadImage(GameGUI.COUNTER_CLOCKWISE);
+        hitCards = new int[USER_CARDS + 2];
+        hitAreas = new Rectangle[hitCards.length];
+        for(int i = 0; i < hitAreas.length; i++) {
+            hitAreas[i] = new Rectangle();
+        }
+        pressedCard = -1;
+        setLayout(null);
+        setOpaque(true);
+        setFont(UIManager.getFont("Label.font"));
+        setForeground(UIManager.getColor("Label.foreground"));
+        setBackground(UIManager.getColor("Panel.background"));
+        addMouseListener(this);
+    }
+
+    /* Seats the players of a new game, the user at the bottom (index 0) and the opponents clockwise: up the left side,
+     * along the top from left to right, then down the right side, as GameGUI does
+     */
+    void initGame(Player[] players) {
+        atlas = CardAtlas.get(getBackground());
+        angles = new int[players.length];
+        maxCards = new int[players.length];
+        maxCards[0] = USER_CARDS;
+        int opponents = players.length - 1;
+        int side = opponents / 3;
+        left = seatGroup(1, side, 90, 3);
+        top = seatGroup(1 + side, opponents - 2 * side, 180, 7);
+        right = seatGroup(1 + opponents - side, side, 270, 3);
+        for(int i = 0, j = left.length - 1; i < j; i++, j--) {     //the left side is seated from the bottom up
+            int seat = left[i];
+            left[i] = left[j];
+            left[j] = seat;
+        }
+        startIndex = 0;
+        hitCount = 0;
+        add(pass);
+        revalidate();
+        repaint();
+    }
+
+    //Seats count players from the given seat at the given angle, each hand showing at most cards / count cards
+    private int[] seatGroup(int seat, int count, int angle, int cards) {
+        int[] group = new int[count];
+        for(int i = 0; i < count; i++) {
+            group[i] = seat + i;
+            angles[seat + i] = angle;
+            maxCards[seat + i] = Math.max(1, cards / count);
+        }
+        return group;
+    }
+
+    //Places the pass button under the piles
+    @Override
+    public void doLayout() {
+        Dimension size = pass.getPreferredSize();
+        int y = middleTop() + lineHeight() + GAP + CARD_HEIGHT + GAP;
+        pass.setBounds((getWidth() - size.width) / 2, y, size.width, size.height);
+    }
+
+    //Top of the middle of the table: the turn, the piles, the pass button and the direction of play
+    private int middleTop() {
+        int height = lineHeight() + GAP + CARD_HEIGHT + GAP + pass.getPreferredSize().height + GAP +
+                clockWise.getHeight(null);
+        return (getHeight() - height) / 2;
+    }
+
+    private int lineHeight() {
+        return getFontMetrics(getFont()).getHeight();
+    }
+
+    //Width of the info of a hand (the player's label and number of cards)
+    private int infoWidth(FontMetrics metrics) {
+        return metrics.stringWidth("Number of cards: 000");
+    }
+
+    /* Paints the table from the game's current state, nothing is cached between frames but the atlas
+     * If the accelerated atlas was lost during the paint, another frame is painted
+     */
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        graphics.setColor(getBackground());
+        graphics.fillRect(0, 0, getWidth(), getHeight());
+        Player[] players = game.getPlayers();
+        if(angles == null || players == null || players.length != angles.length)
+            return;
+        Image sprites = atlas.image(getGraphicsConfiguration());
+        graphics.setFont(getFont());
+        graphics.setColor(getForeground());
+        FontMetrics metrics = graphics.getFontMetrics();
+        hitCount = 0;
+        paintUser(graphics, sprites, metrics, players[0]);
+        paintTop(graphics, sprites, metrics, players);
+        paintSide(graphics, sprites, metrics, players, left, GAP);
+        paintSide(graphics, sprites, metrics, players, right,
+                getWidth() - GAP - CARD_HEIGHT - infoWidth(metrics));
+        paintMiddle(graphics, sprites, metrics);
+        if(atlas.contentsLost())
+            repaint();
+    }
+
+    //The user's hand is at the bottom, face up, with its info above the cards
+    private void paintUser(Graphics g, Image sprites, FontMetrics metrics, Player user) {
+        Hand hand = user.getHand();
+        int end = Math.min(startIndex + USER_CARDS, hand.getLength());
+        int y = getHeight() - GAP - CARD_HEIGHT;
+        int line = metrics.getHeight();
+        paintInfo(g, metrics, 0, hand, getWidth() / 2, y - 2 * line);
+        int x = (getWidth() - (end - startIndex) * CARD_WIDTH) / 2;
+        for(int i = startIndex; i < end; i++, x += CARD_WIDTH) {
+            int card = hand.get(i);
+            paintCard(g, sprites, atlas.face(card, CardColor.WILD), x, y, CARD_WIDTH, CARD_HEIGHT);
+            hit(card, x, y, CARD_WIDTH, CARD_HEIGHT);
+        }
+    }
+
+    //The hands at the top are painted from left to right, face down with their info under the cards
+    private void paintTop(Graphics g, Image sprites, FontMetrics metrics, Player[] players) {
+        int width = 0;
+        for(int seat : top) {
+            width += blockWidth(metrics, seat) + GAP;
+        }
+        int x = (getWidth() - width + GAP) / 2;
+        for(int seat : top) {
+            int blockWidth = blockWidth(metrics, seat);
+            Hand hand = players[seat].getHand();
+            int shown = Math.min(maxCards[seat], hand.getLength());
+            int cardX = x + (blockWidth - shown * CARD_WIDTH) / 2;
+            for(int i = 0; i < shown; i++, cardX += CARD_WIDTH) {
+                paintCard(g, sprites, atlas.back(180), cardX, GAP, CARD_WIDTH, CARD_HEIGHT);
+            }
+            paintInfo(g, metrics, seat, hand, x + blockWidth / 2, GAP + CARD_HEIGHT);
+            x += blockWidth + GAP;
+        }
+    }
+
+    //Width of a hand at the top, its cards or its info if they are wider
+    private int blockWidth(FontMetrics metrics, int seat) {
+        return Math.max(maxCards[seat] * CARD_WIDTH, infoWidth(metrics));
+    }
+
+    /* The hands of a side are painted from top to bottom from the given x, face down and sideways
+     * The info is on the table's side of the cards
+     */
+    private void paintSide(Graphics g, Image sprites, FontMetrics metrics, Player[] players, int[] seats, int x) {
+        int height = 0;
+        for(int seat : seats) {
+            height += blockHeight(metrics, seat) + GAP;
+        }
+        int y = (getHeight() - height + GAP) / 2;
+        int infoWidth = infoWidth(metrics);
+        for(int seat : seats) {
+            int blockHeight = blockHeight(metrics, seat);
+            Hand hand = players[seat].getHand();
+            int shown = Math.min(maxCards[seat], hand.getLength());
+            int cardsX = angles[seat] == 90 ? x : x + infoWidth;
+            int infoX = angles[seat] == 90 ? x + CARD_HEIGHT : x;
+            int cardY = y + (blockHeight - shown * CARD_WIDTH) / 2;
+            for(int i = 0; i < shown; i++, cardY += CARD_WIDTH) {
+                paintCard(g, sprites, atlas.back(angles[seat]), cardsX, cardY, CARD_HEIGHT, CARD_WIDTH);
+            }
+            paintInfo(g, metrics, seat, hand, infoX + infoWidth / 2, y + (blockHeight - 2 * metrics.getHeight()) / 2);
+            y += blockHeight + GAP;
+        }
+    }
+
+    //Height of a hand on a side, its cards or its info if they are higher
+    private int blockHeight(FontMetrics metrics, int seat) {
+        return Math.max(maxCards[seat] * CARD_WIDTH, 2 * metrics.getHeight());
+    }
+
+    //The turn, the top of the discard pile and of the draw pile, and the direction of play under the pass button
+    private void paintMiddle(Graphics g, Image sprites, FontMetrics metrics) {
+        int y = middleTop();
+        paintCentered(g, metrics, "Player " + (game.getCurrentTurn() + 1) + "'s turn", getWidth() / 2, y);
+        y += metrics.getHeight() + GAP;
+        int x = getWidth() / 2 - CARD_WIDTH - GAP / 2;
+        DiscardPile discardPile = game.getDiscardPile();
+        int discard = discardPile.getLast();
+        if(discard != -1) {
+            paintCard(g, sprites, atlas.face(discard, discardPile.getWildColor()), x, y, CARD_WIDTH, CARD_HEIGHT);
+            hit(discard, x, y, CARD_WIDTH, CARD_HEIGHT);
+        }
+        x += CARD_WIDTH + GAP;
+        int draw = game.getDrawPile().getLast();
+        if(draw != -1) {
+            paintCard(g, sprites, atlas.back(0), x, y, CARD_WIDTH, CARD_HEIGHT);
+            hit(draw, x, y, CARD_WIDTH, CARD_HEIGHT);
+        }
+        y += CARD_HEIGHT + GAP + pass.getPreferredSize().height + GAP;
+        Image direction = game.getDirection() == Direction.CW ? clockWise : counterClockWise;
+        g.drawImage(direction, (getWidth() - direction.getWidth(null)) / 2, y, null);
+    }
+
+    //Paints the player's label and number of cards on two lines centered on x, from the given top
+    private void paintInfo(Graphics g, FontMetrics metrics, int seat, Hand hand, int x, int top) {
+        paintCentered(g, metrics, "Player " + (seat + 1), x, top);
+        paintCentered(g, metrics, "Number of cards: " + hand.getLength(), x, top + metrics.getHeight());
+    }
+
+    private static void paintCentered(Graphics g, FontMetrics metrics, String text, int x, int top) {
+        g.drawString(text, x - metrics.stringWidth(text) / 2, top + metrics.getAscent());
+    }
+
+    //Paints a sprite centered in a card's cell
+    private void paintCard(Graphics g, Image sprites, int sprite, int x, int y, int width, int height) {
+        atlas.draw(g, sprites, sprite, x + (width - atlas.width(sprite)) / 2, y + (height - atlas.height(sprite)) / 2);
+    }
+
+    //Records a card that can be clicked
+    private void hit(int card, int x, int y, int width, int height) {
+        hitCards[hitCount] = card;
+        hitAreas[hitCount++].setBounds(x, y, width, height);
+    }
+
+    //Returns the card painted at the given point by the last paint, -1 if there is no card that can be clicked
+    int cardAt(int x, int y) {
+        for(int i = 0; i < hitCount; i++) {
+            if(hitAreas[i].contains(x, y))
+                return hitCards[i];
+        }
+        return -1;
+    }
+
+    //Sets the listener of the cards clicked by the user, null removes it
+    void setCardListener(IntConsumer cardListener) {
+        this.cardListener = cardListener;
+    }
+
+    //Same as HandView.increaseStartIndex(), for the user's hand
+    void increaseStartIndex() {
+        if(startIndex < game.getPlayers()[0].getHand().getLength() - USER_CARDS)
+            startIndex += 1;
+    }
+
+    //Same as HandView.decreaseStartIndex(), for the user's hand
+    void decreaseStartIndex() {
+        if(startIndex > 0)
+            startIndex -= 1;
+    }
+
+    @Override
+    public void mousePressed(MouseEvent e) {
+        pressedCard = SwingUtilities.isLeftMouseButton(e) ? cardAt(e.getX(), e.getY()) : -1;
+    }
+
+    //Like a button, a card is clicked when the mouse is released over the card it was pressed on
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        int card = cardAt(e.getX(), e.getY());
+        if(card != -1 && card == pressedCard && cardListener != null)
+            cardListener.accept(card);
+        pressedCard = -1;
+    }
+
+    //Unused methods
+    @Override
+    public void mouseClicked(MouseEvent e) {}
+    @Override
+    public void mouseEntered(MouseEvent e) {}
+    @Override
+    public void mouseExited(MouseEvent e) {}
+}
@@ -0,0 +1,157 @@
+/* TableHost.java
+ * Hosts many tables in one JVM on a small pool of threads, one per core
+ * Tables only take a thread while they have turns to play, a table that waits on a remote seat is parked on the heap,
+ * so thousands of mostly idle tables can be held without a thread (and a thread stack) per table
+ * The main method is a benchmark: it parks the tables on their first remote move to measure the heap used by an idle
+ * table, then lets bot clients answer every move to measure the turns per second of the whole host
+ * CPU turns are played right away unless a pace is given (see TurnPacer)
+ * Usage: java uno.TableHost [tables] [players] [seconds] [seed] [pace millis]
+ */
+
+package uno;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TableHost {
+
+    private final ForkJoinPool pool;
+    private final List<Table> tables;
+    private final long seed;                    //seed of the host, each table plays its own series of games
+    private int opened;                         //number of tables opened, gives the ids of the tables
+
+    TableHost(int threads, long seed) {
+        //async mode runs the tasks in the order they were queued, tables are never joined
+        pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        tables = new ArrayList<>();
+        this.seed = seed;
+    }
+
+    public static void main(String [] args) throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        int tableCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int playerCount = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : Randomness.newSeed();
+        TurnPacer pacer = args.length > 4 ? new TurnPacer(Long.parseLong(args[4])) : TurnPacer.TURBO;
+        Game.checkPlayers(playerCount);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        TableHost host = new TableHost(cores, seed);
+        BotClient client = new BotClient(tableCount);
+        long heapBefore = usedHeap();
+        for(int i = 0; i < tableCount; i++) {
+            host.openTable(playerCount, 1, pacer, client);
+        }
+        client.awaitParked();
+        long heapIdle = usedHeap();
+        System.out.printf("Tables: %d, players: %d, pace: %d ms, threads: %d, live threads in the JVM: %d%n",
+                tableCount, playerCount, pacer.getPaceMillis(), cores, Thread.activeCount());
+        System.out.printf("Heap per idle table: %.1f KB%n", (heapIdle - heapBefore) / 1024.0 / tableCount);
+
+        client.active = true;
+        long start = System.nanoTime();
+        for(Table table : host.tables) {
+            table.remind();
+        }
+        Thread.sleep(seconds * 1000L);
+        host.close();
+        double secs = (System.nanoTime() - start) / 1e9;     //includes the turns that were being played when closed
+        long turns = 0;
+        long games = 0;
+        long rejected = 0;
+        for(Table table : host.tables) {
+            turns += table.getTurns();
+            games += table.getGames();
+            rejected += table.getRejected();
+        }
+        System.out.printf("Turns: %d, games started: %d, rejected moves: %d, time: %.2f s%n", turns, games, rejected,
+                secs);
+        System.out.printf("Throughput: %.0f turns/s%n", turns / secs);
+    }
+
+    /* Opens a table whose first remoteSeats seats are played by clients, the other seats are CPUPlayers
+     * CPU turns are paced by the given pacer
+     * The listener is told every time the table waits on one of the remote seats
+     */
+    Table openTable(int playerCount, int remoteSeats, TurnPacer pacer, Table.Listener listener) {
+        Table table = newTable(playerCount, remoteSeats, pacer, listener);
+        table.open();
+        return table;
+    }
+
+    //Same as openTable() but the table only starts when it is opened, so its id can be handed out first
+    Table newTable(int playerCount, int remoteSeats, TurnPacer pacer, Table.Listener listener) {
+        Table table = new Table(opened, playerCount, remoteSeats, Randomness.seedOf(seed, opened), pool, pacer,
+                listener);
+        opened++;
+        tables.add(table);
+        return table;
+    }
+
+    //Closes a table and stops holding it, used when the clients of a table leave
+    void closeTable(Table table) {
+        table.close();
+        tables.remove(table);
+    }
+
+    //Closes every table and waits for the pool to finish the turns it was playing
+    void close() throws InterruptedException {
+        for(Table table : tables) {
+            table.close();
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /* Client used by the benchmark, plays every remote seat like a CPUPlayer would, without any pause
+     * Until it is activated, it leaves the tables waiting and counts the tables that are parked
+     */
+    private static class BotClient implements Table.Listener {
+
+        private final AtomicInteger parked;     //tables that are waiting on their first move
+        private final int tableCount;
+        volatile boolean active;
+
+        BotClient(int tableCount) {
+            this.tableCount = tableCount;
+            parked = new AtomicInteger();
+        }
+
+        @Override
+        public void awaitingMove(Table table, int seat) {
+            if(!active) {
+                parked.incrementAndGet();
+                return;
+            }
+            Hand hand = table.getHand(seat);
+            boolean drawn = table.isDrawn(seat);
+            for(int i = drawn ? hand.getLength() - 1 : 0; i < hand.getLength(); i++) {
+                int card = hand.get(i);
+                if(hand.isPlayable(card)) {
+                    table.submit(seat, Table.PLAY, card, CPUPlayer.abundantColor(hand));
+                    return;
+                }
+            }
+            table.submit(seat, drawn ? Table.PASS : Table.DRAW, 0, null);
+        }
+
+        void awaitParked() throws InterruptedException {
+            while(parked.get() < tableCount) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/* Tournament.java
+ * Plays many independent headless games in parallel on a fork/join pool to compare player strategies
+ * Each seat is given a strategy by name, reports win rates and average game length with 95% confidence intervals
+ * With -scaling, the tournament is repeated with 1, 2, 4, ... worker threads to report scaling efficiency
+ * Game i is played with the seed Randomness.seedOf(seed, i), so a tournament is reproduced by giving it the same seed
+ * Strategies: cpu (CPUPlayer) and ismcts (IsmctsPlayer), which can be given a budget per move with ismcts:playouts
+ * or ismcts:millis"ms" (1000 playouts by default), and solver (SolverPlayer), which sees every card and searches its
+ * endgame moves for solver:millis"ms" (50 ms by default)
+ * With -lockstep, the games of each batch are played side by side and every seat's strategy decides for all of them
+ * in one call (see Lockstep), only for the strategies of bots (see Strategy). The games are dealt the same, but each
+ * strategy has one random stream per batch, so the results are not the ones of the same tournament without -lockstep
+ * Usage: java uno.Tournament [-scaling] [-lockstep] [-seed seed] games strategy strategy [strategy strategy]
+ */
+
+package uno;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+public class Tournament {
+
+    private static final int TURN_LIMIT = 10000;   //games that don't end within this many turns count as a draw
+    private static final int BATCH_SIZE = 256;     //games played by one fork/join task without splitting further
+    private static final int ISMCTS_PLAYOUTS = 1000;    //budget of ismcts when none is given
+    private static final long SOLVER_MILLIS = 50;       //budget of solver when none is given
+
+    //Strategies that can be given to a seat, by name
+    private static final Map<String, PlayerFactory> STRATEGIES = new LinkedHashMap<>();
+
+    //Strategies of bots, which can also be played in lockstep, by name
+    private static final Map<String, Function<SplittableRandom, Strategy>> BOTS = new LinkedHashMap<>();
+
+    static {
+        BOTS.put("cpu", CPUPlayer::new);
+        for(Map.Entry<String, Function<SplittableRandom, Strategy>> bot : BOTS.entrySet()) {
+            STRATEGIES.put(bot.getKey(), BotPlayer.factory(bot.getValue()));
+        }
+    }
+
+    private final PlayerFactory[] seats;
+    private final String[] names;
+    private final long seed;                        //seed of the series of games
+    private final List<Function<SplittableRandom, Strategy>> bots;     //strategy of each seat in lockstep, else null
+
+    Tournament(String[] names, long seed, boolean lockstep) {
+        this.seed = seed;
+        Game.checkPlayers(names.length);
+        this.names = names;
+        seats = new PlayerFactory[names.length];
+        for(int i = 0; i < names.length; i++) {
+            seats[i] = strategy(names[i], 1);      //games are played in parallel, so searches use a single thread
+        }
+        if(lockstep) {
+            bots = new ArrayList<>(names.length);
+            for(String name : names) {
+                Function<SplittableRandom, Strategy> bot = BOTS.get(name);
+                if(bot == null)
+                    throw new IllegalArgumentException("Strategy " + name + " can't be played in lockstep, " +
+                            "expected one of " + BOTS.keySet());
+                bots.add(bot);
+            }
+        }
+        else
+            bots = null;
+    }
+
+    /* Returns the strategy with the given name, threads is the number of threads that a search may use
+     * ismcts:1000 searches 1000 playouts per move, ismcts:50ms searches for 50 milliseconds per move
+     */
+    static PlayerFactory strategy(String name, int threads) {
+        if(name.equals("solver") || name.startsWith("solver:") && name.endsWith("ms")) {
+            long millis = name.equals("solver") ? SOLVER_MILLIS :
+                    Long.parseLong(name.substring(7, name.length() - 2));
+            return (hand, discardPile, random) -> new SolverPlayer(hand, discardPile, random, millis);
+        }
+        if(name.equals("ismcts") || name.startsWith("ismcts:")) {
+            String budget = name.equals("ismcts") ? String.valueOf(ISMCTS_PLAYOUTS) : name.substring(7);
+            int playouts = 0;
+            long millis = 0;
+            if(budget.endsWith("ms"))
+                millis = Long.parseLong(budget.substring(0, budget.length() - 2));
+            else
+                playouts = Integer.parseInt(budget);
+            int budgetPlayouts = playouts;
+            long budgetMillis = millis;
+            return (hand, discardPile, random) -> new IsmctsPlayer(hand, discardPile, random, budgetPlayouts,
+                    budgetMillis, threads);
+        }
+        PlayerFactory strategy = STRATEGIES.get(name);
+        if(strategy == null)
+            throw new IllegalArgumentException("Unknown strategy " + name + ", expected one of " +
+                    STRATEGIES.keySet() + ", ismcts[:budget] or solver[:millis ms]");
+        return strategy;
+    }
+
+    public static void main(String [] args) {
+        System.setProperty("java.awt.headless", "true");
+        boolean scaling = false;
+        boolean lockstep = false;
+        long seed = Randomness.newSeed();
+        int first = 0;
+        while(first < args.length && args[first].startsWith("-")) {
+            if(args[first].equals("-scaling"))
+                scaling = true;
+            else if(args[first].equals("-lockstep"))
+                lockstep = true;
+            else if(args[first].equals("-seed") && first + 1 < args.length)
+                seed = Long.parseLong(args[++first]);
+            first++;
+        }
+        if(args.length - first < 3) {
+            System.out.println("Usage: java uno.Tournament [-scaling] [-lockstep] [-seed seed] games strategy " +
+                    "strategy [strategy strategy]");
+            System.out.println("Strategies: " + STRATEGIES.keySet() + ", ismcts[:playouts | :millis ms], " +
+                    "solver[:millis ms]");
+            return;
+        }
+        int games = Integer.parseInt(args[first]);
+        String[] names = new String[args.length - first - 1];
+        System.arraycopy(args, first + 1, names, 0, names.length);
+        Tournament tournament = new Tournament(names, seed, lockstep);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        Results results = tournament.play(games, cores);
+        double secs = (System.nanoTime() - start) / 1e9;
+        tournament.print(results, cores, secs);
+        if(scaling)
+            tournament.printScaling(games, cores);
+    }
+
+    //Plays the given number of games on a pool with the given number of worker threads
+    Results play(int games, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new Batch(0, games));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //Prints win rates and the average game length, each with a 95% confidence interval
+    private void print(Results results, int threads, double secs) {
+        int games = results.games;
+        System.out.printf("Games: %d, seed: %d, threads: %d, time: %.2f s, throughput: %.1f games/s%n",
+                games, seed, threads, secs, games / secs);
+        for(int i = 0; i < seats.length; i++) {
+            double p = (double) results.wins[i] / games;
+            double margin = 1.96 * Math.sqrt(p * (1 - p) / games);
+            System.out.printf("Player %d (%s): win rate %.2f%% +/- %.2f%%%n", i + 1, names[i], 100 * p, 100 * margin);
+        }
+        double mean = (double) results.turns / games;
+        double variance = Math.max(0, (double) results.squaredTurns / games - mean * mean);
+        System.out.printf("Average game length: %.2f +/- %.2f turns%n", mean, 1.96 * Math.sqrt(variance / games));
+        System.out.println("Draws (turn limit reached): " + results.draws);
+    }
+
+    /* Plays the tournament with 1, 2, 4, ... threads up to the number of cores
+     * Efficiency is the speedup over one thread divided by the number of threads (100% is perfect scaling)
+     */
+    private void printScaling(int games, int cores) {
+        System.out.println("Threads  games/s  speedup  efficiency");
+        double single = 0;
+        int threads = 1;
+        while(true) {
+            play(Math.min(games, 1000), threads);    //warm up
+            long start = System.nanoTime();
+            play(games, threads);
+            double rate = games / ((System.nanoTime() - start) / 1e9);
+            if(threads == 1)
+                single = rate;
+            double speedup = rate / single;
+            System.out.printf("%7d  %7.0f  %7.2f  %9.1f%%%n", threads, rate, speedup, 100 * speedup / threads);
+            if(threads == cores)
+                break;
+            threads = Math.min(threads * 2, cores);
+        }
+    }
+
+    //Totals of a range of games, results of two ranges are added together by merge()
+    static class Results {
+        int games;
+        int draws;
+        long turns;
+        long squaredTurns;
+        final int[] wins;
+
+        Results(int players) {
+            wins = new int[players];
+        }
+
+        //Adds a game that was played to its end or to the turn limit
+        void add(Game game) {
+            int winner = game.getWinner();
+            if(winner == -1)
+                draws++;
+            else
+                wins[winner]++;
+            games++;
+            turns += game.getTurns();
+            squaredTurns += (long) game.getTurns() * game.getTurns();
+        }
+
+        Results merge(Results other) {
+            games += other.games;
+            draws += other.draws;
+            turns += other.turns;
+            squaredTurns += other.squaredTurns;
+            for(int i = 0; i < wins.length; i++) {
+                wins[i] += other.wins[i];
+            }
+            return this;
+        }
+    }
+
+    //Plays the games from start (inclusive) to end (exclusive), splitting the range in half until it is small enough
+    private class Batch extends RecursiveTask<Results> {
+
+        private final int start;
+        private final int end;
+
+        Batch(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Results compute() {
+            if(end - start > BATCH_SIZE) {
+                int middle = (start + end) >>> 1;
+                Batch left = new Batch(start, middle);
+                left.fork();
+                Results right = new Batch(middle, end).compute();
+                return right.merge(left.join());
+            }
+            Results results = new Results(seats.length);
+            if(bots != null) {
+                //the strategies' streams are split from the batch's first seed, so a batch is reproduced too
+                SplittableRandom random = new SplittableRandom(Randomness.seedOf(seed, start));
+                Strategy[] strategies = new Strategy[bots.size()];
+                for(int i = 0; i < strategies.length; i++) {
+                    strategies[i] = bots.get(i).apply(random.split());
+                }
+                Lockstep lockstep = new Lockstep(strategies, seed, start, end, TURN_LIMIT);
+                lockstep.play();
+                for(Game game : lockstep.getGames()) {
+                    results.add(game);
+                }
+                return results;
+            }
+            for(int i = start; i < end; i++) {
+                Game game = Game.headless(seats.length, Randomness.seedOf(seed, i));
+                game.simulate(seats, TURN_LIMIT);
+                results.add(game);
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/* TurnPacer.java
+ * Slows the turns of CPU players down so that the user can follow them
+ * The pace is the time between the start of a CPU turn and the moment its move is made, 0 in turbo mode
+ * Paced moves are scheduled on a single timer thread shared by every game, no thread sleeps while a move waits,
+ * so one thread serves any number of paced tables
+ */
+
+package uno;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class TurnPacer {
+
+    static final long HUMAN_PACE = 2000;        //milliseconds, a CPU turn takes about as long as a person's
+    static final TurnPacer TURBO = new TurnPacer(0);
+
+    private final long paceMillis;
+
+    TurnPacer(long paceMillis) {
+        this.paceMillis = paceMillis;
+    }
+
+    //Timer thread, only created once a paced move is scheduled
+    private static class Timer {
+
+        static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Turn pacer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    boolean isTurbo() {
+        return paceMillis == 0;
+    }
+
+    long getPaceMillis() {
+        return paceMillis;
+    }
+
+    /* Runs the task once the pace has elapsed, the task runs on the timer thread so it must only hand the move
+     * over to the thread that makes it (a table schedules itself on its host's pool, the desktop game runs its loop
+     * again on the game thread)
+     */
+    void schedule(Runnable task) {
+        Timer.EXECUTOR.schedule(task, paceMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -4,13 +4,12 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.awt.image.BufferedImage;
 
 public class WelcomeScreen extends JFrame implements ActionListener {
 
     private Game game;
     private JButton [] modeOptions;
-    private boolean modeSelected;
+    private JSpinner partyPlayers;      //number of players of a party game, the game adds a deck every 10 players
 
     WelcomeScreen(Game game) {
         this.game = game;
@@ -20,14 +19,18 @@ public class WelcomeScreen extends JFrame implements ActionListener {
         setLocationRelativeTo(null);
         setLayout(new BorderLayout());
         setResizable(false);
-        setVisible(true);
-        modeOptions = new JButton[2];
+        modeOptions = new JButton[3];
         modeOptions[0] = new JButton("2-Player");
         modeOptions[0].addActionListener(this);
         modeOptions[1] = new JButton("4-Player");
         modeOptions[1].addActionListener(this);
+        modeOptions[2] = new JButton("Party");
+        modeOptions[2].addActionListener(this);
+        partyPlayers = new JSpinner(new SpinnerNumberModel(10, 5, Game.MAX_PLAYERS, 1));
         modeSelection();
         unoBackground();
+        setVisible(true);
+        Startup.welcomeShown();
     }
 
     public void modeSelection() {
@@ -41,6 +44,8 @@ public class WelcomeScreen extends JFrame implements ActionListener {
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(modeOptions[0]);
         buttonPanel.add(modeOptions[1]);
+        buttonPanel.add(modeOptions[2]);
+        buttonPanel.add(partyPlayers);
 
         southPanel.add(labelPanel);
         southPanel.add(buttonPanel);
@@ -48,32 +53,22 @@ public class WelcomeScreen extends JFrame implements ActionListener {
         add(southPanel, BorderLayout.SOUTH);
     }
 
+    //The background is decoded by Startup, the screen is shown without it until it is ready
     public void unoBackground() {
-        BufferedImage introImg = ImageProcessor.loadImage("/images/other/Uno background.jpg");
         JLabel introLabel = new JLabel();
-        introLabel.setIcon(new ImageIcon(introImg));
         introLabel.setHorizontalAlignment(JLabel.CENTER);
         add(introLabel, BorderLayout.CENTER);
+        Startup.background().thenAccept(introImg ->
+                EventQueue.invokeLater(() -> introLabel.setIcon(new ImageIcon(introImg))));
     }
 
     @Override
     public void actionPerformed(ActionEvent e) {
-        if(e.getSource() == modeOptions[0] || e.getSource() == modeOptions[1]) {
-            if (e.getSource() == modeOptions[0])
-                game.initPlayerSize(2);
-            else
-                game.initPlayerSize(4);
-            modeSelected = true;
-            game.countDown();
-            setVisible(false);
+        if(e.getSource() == modeOptions[0] || e.getSource() == modeOptions[1] || e.getSource() == modeOptions[2]) {
+            int players = e.getSource() == modeOptions[0] ? 2 : e.getSource() == modeOptions[1] ? 4 :
+                    (Integer) partyPlayers.getValue();
+            if(game.getInbox().send(PlayerAction.mode(players)))   //refused if the game is not ready for a new game
+                setVisible(false);
         }
     }
-
-    public void setModeSelected(boolean modeSelected) {
-        this.modeSelected = modeSelected;
-    }
-
-    public boolean isModeSelected() {
-        return modeSelected;
-    }
 }
\ No newline at end of file
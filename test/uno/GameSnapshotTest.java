@@ -0,0 +1,249 @@
+/* GameSnapshotTest.java
+ * Round trips of GameSnapshot and Checkpoint: games saved in the middle of play at tables of 2 to 20 players are
+ * restored to the same state and play on like the saved game, a damaged checkpoint slot falls back to the older one,
+ * and snapshots that are damaged are rejected
+ */
+
+package uno;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GameSnapshotTest {
+
+    private static final int[] TABLES = {2, 4, 10, 20};
+    private static final int GAMES = 20;            //games played at each table size
+    private static final int TURNS = 40;            //turns played before the snapshot
+
+    private Path file;
+
+    @Before
+    public void createFile() throws IOException {
+        file = Files.createTempFile("uno", ".save");
+    }
+
+    @After
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    //Writing a restored game gives back the same bytes, at every table size and at several points of each game
+    @Test
+    public void restoredGameWritesTheSameSnapshot() {
+        for(int players : TABLES) {
+            for(int i = 0; i < GAMES; i++) {
+                Game game = start(players, i);
+                for(int turn = 0; turn < TURNS && game.isRunning(); turn++) {
+                    byte[] saved = write(game);
+                    assertArrayEquals(players + " players, game " + i + ", turn " + turn, saved,
+                            write(read(saved, players)));
+                    game.playTurn();
+                }
+            }
+        }
+    }
+
+    //A game restored from a snapshot taken right after reseed() plays the same turns as the saved game
+    @Test
+    public void restoredGamePlaysLikeTheSavedGame() {
+        for(int players : TABLES) {
+            for(int i = 0; i < GAMES; i++) {
+                Game game = start(players, i);
+                play(game, TURNS);
+                if(!game.isRunning())
+                    continue;
+                game.reseed();
+                Game restored = read(write(game), players);
+                for(int turn = 0; turn < TURNS && game.isRunning(); turn++) {
+                    game.playTurn();
+                    restored.playTurn();
+                    assertArrayEquals(players + " players, game " + i + ", turn " + turn, write(game),
+                            write(restored));
+                }
+                assertEquals(game.isRunning(), restored.isRunning());
+            }
+        }
+    }
+
+    //Snapshots of version 1 have no stream seed and are still restored
+    @Test
+    public void readsVersionOneSnapshots() {
+        Game game = start(4, 0);
+        play(game, TURNS);
+        byte[] saved = write(game);
+        byte[] old = new byte[saved.length - 8];
+        System.arraycopy(saved, 0, old, 0, 26);             //the header up to the stream seed
+        System.arraycopy(saved, 34, old, 26, saved.length - 34);
+        old[4] = 1;
+        Game restored = read(old, 4);
+        assertEquals(game.getTurns(), restored.getTurns());
+        assertEquals(game.getCurrentTurn(), restored.getCurrentTurn());
+        assertEquals(game.getSeed(), restored.getStreamSeed());
+    }
+
+    //The snapshot of a second game played on the same Game counts the turns of that game only
+    @Test
+    public void secondGameCountsItsOwnTurns() {
+        Game game = start(4, 3);
+        play(game, Integer.MAX_VALUE);
+        assertFalse(game.isRunning());
+        game.clear();
+        game.start(seats(4));
+        play(game, 5);
+        byte[] saved = write(game);
+        assertEquals(5, ByteBuffer.wrap(saved).getInt(22));      //turns, after the seed
+        assertEquals(5, read(saved, 4).getTurns());
+        assertEquals(-1, game.getWinner());
+    }
+
+    //load() returns the newest save, null once the checkpoint is cleared, and the older save if the newest is damaged
+    @Test
+    public void checkpointFallsBackToTheOlderSlot() throws IOException {
+        Game game = start(4, 1);
+        play(game, 5);
+        byte[] older = write(game);
+        play(game, 5);
+        byte[] newer = write(game);
+        try(Checkpoint checkpoint = new Checkpoint(file)) {
+            checkpoint.save(read(older, 4));
+            checkpoint.save(read(newer, 4));
+            assertArrayEquals(newer, bytes(checkpoint.load()));
+        }
+        try(Checkpoint checkpoint = new Checkpoint(file)) {
+            assertArrayEquals(newer, bytes(checkpoint.load()));
+        }
+        //the second save went to slot 0, damages a byte of its snapshot
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer damaged = ByteBuffer.allocate(1);
+            channel.read(damaged, 16 + 20);
+            damaged.put(0, (byte) ~damaged.get(0));
+            damaged.rewind();
+            channel.write(damaged, 16 + 20);
+        }
+        try(Checkpoint checkpoint = new Checkpoint(file)) {
+            assertArrayEquals(older, bytes(checkpoint.load()));
+            checkpoint.clear();
+            assertNull(checkpoint.load());
+        }
+        try(Checkpoint checkpoint = new Checkpoint(file)) {
+            assertNull(checkpoint.load());
+            checkpoint.save(read(newer, 4));
+        }
+        try(Checkpoint checkpoint = new Checkpoint(file)) {
+            assertNotNull(checkpoint.load());
+        }
+    }
+
+    @Test
+    public void rejectsDamagedSnapshots() {
+        Game game = start(4, 2);
+        play(game, TURNS);
+        byte[] saved = write(game);
+        rejects(saved, 0, (byte) 0, "magic");
+        rejects(saved, 4, (byte) (GameSnapshot.VERSION + 1), "version");
+        rejects(saved, 5, (byte) 1, "players");
+        rejects(saved, 5, (byte) 21, "players");
+        rejects(saved, 6, (byte) 0, "decks");
+        rejects(saved, 7, (byte) 4, "current turn");
+        rejects(saved, 8, (byte) 2, "direction");
+        rejects(saved, 9, (byte) 5, "wild color");
+        rejects(saved, 13, (byte) 0x10, "drawn");
+        rejects(Arrays.copyOf(saved, saved.length - 2), "cut short");
+        rejects(Arrays.copyOf(saved, 20), "header cut short");
+        //the draw pile's size is at 34, its first card at 36
+        int drawPile = ByteBuffer.wrap(saved).getShort(34);
+        rejects(saved, 35, (byte) (drawPile - 1), "missing card");
+        rejects(saved, 36, (byte) 0x7f, "card out of range");
+        byte[] twice = saved.clone();
+        twice[38] = twice[36];                              //the same card twice, the other card goes missing
+        twice[39] = twice[37];
+        rejects(twice, "card twice");
+    }
+
+    //A damaged snapshot is rejected before the desktop game's table is set up for it, the game is left as it was
+    @Test
+    public void rejectedSnapshotLeavesTheGameUnchanged() {
+        Game saved = start(20, 1);
+        play(saved, TURNS);
+        byte[] damaged = write(saved);
+        damaged = Arrays.copyOf(damaged, damaged.length - 2);
+        Game game = start(4, 3);
+        play(game, TURNS);
+        byte[] before = write(game);
+        try {
+            GameSnapshot.read(ByteBuffer.wrap(damaged), game);
+            fail("Snapshot cut short was restored");
+        } catch(IllegalArgumentException e) {
+            assertArrayEquals(before, write(game));
+        }
+    }
+
+    private static void rejects(byte[] saved, int index, byte value, String damage) {
+        byte[] damaged = saved.clone();
+        damaged[index] = value;
+        rejects(damaged, damage);
+    }
+
+    private static void rejects(byte[] damaged, String damage) {
+        try {
+            read(damaged, 4);
+            fail("Snapshot with " + damage + " was restored");
+        } catch(IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    private static Game start(int players, int game) {
+        Game started = Game.headless(players, Randomness.seedOf(players, game));
+        started.start(seats(players));
+        return started;
+    }
+
+    private static void play(Game game, int turns) {
+        for(int turn = 0; turn < turns && game.isRunning(); turn++) {
+            game.playTurn();
+        }
+    }
+
+    private static PlayerFactory[] seats(int players) {
+        PlayerFactory[] seats = new PlayerFactory[players];
+        Arrays.fill(seats, CPUPlayer.FACTORY);
+        return seats;
+    }
+
+    private static byte[] write(Game game) {
+        ByteBuffer out = ByteBuffer.allocate(GameSnapshot.MAX_SIZE);
+        GameSnapshot.write(game, out);
+        out.flip();
+        return bytes(out);
+    }
+
+    private static Game read(byte[] snapshot, int players) {
+        ByteBuffer in = ByteBuffer.wrap(snapshot);
+        Game game = GameSnapshot.read(in, seats(players));
+        assertEquals("bytes left after the snapshot", 0, in.remaining());
+        return game;
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}